@@ -0,0 +1,73 @@
+package cybersecurity.bench;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * frequencyAnalysis, the bruteForceAttack demo, the statistical cracker
+ * and the quadgram scorer
+ * System.out is swapped for a null stream while these run. The printf
+ * formatting they do is still measured, the terminal is not.
+ *
+ * @author Cybersecurity Project
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnalysisBenchmark {
+
+    @Param({"256", "65536", "1048576"})
+    public int size;
+
+    private String ciphertext;
+    private PrintStream console;
+
+    @Setup
+    public void setUp() throws Throwable {
+        ciphertext = (String) Targets.ADVANCED_ENCRYPT.invokeExact(Inputs.text(size, "PROSE"), 7);
+        console = System.out;
+        System.setOut(Targets.nullPrintStream());
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(console);
+    }
+
+    @Benchmark
+    public Object frequencyAnalysis() throws Throwable {
+        return (Object) Targets.FREQUENCY_ANALYSIS.invokeExact(ciphertext);
+    }
+
+    @Benchmark
+    public void bruteForceAttack() throws Throwable {
+        Targets.BRUTE_FORCE_ATTACK.invokeExact(ciphertext);
+    }
+
+    @Benchmark
+    public Object crack() throws Throwable {
+        return (Object) Targets.CRACK.invokeExact((CharSequence) ciphertext);
+    }
+
+    @Benchmark
+    public int ngramCrack() throws Throwable {
+        return (int) Targets.NGRAM_CRACK.invokeExact((CharSequence) ciphertext);
+    }
+}
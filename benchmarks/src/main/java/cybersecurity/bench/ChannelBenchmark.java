@@ -0,0 +1,82 @@
+package cybersecurity.bench;
+
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * CommunicationChannel.sendMessage with the message log on and off, and
+ * with the per-message console output on and off (Metrics quiet switch)
+ * Each call sends one message and takes it back out of the mailbox, so the
+ * mailbox never fills and only the send path is measured.
+ *
+ * @author Cybersecurity Project
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChannelBenchmark {
+
+    @Param({"false", "true"})
+    public boolean logging;
+
+    @Param({"false", "true"})
+    public boolean quiet;
+
+    private Path logFile;
+    private Object channel;
+    private Object message;
+    private PrintStream console;
+
+    @Setup
+    public void setUp() throws Throwable {
+        console = System.out;
+        System.setOut(Targets.nullPrintStream());
+        Targets.SET_QUIET.invokeExact(quiet);
+        if (logging) {
+            logFile = Files.createTempFile("channel-bench", ".log");
+        }
+        channel = (Object) Targets.NEW_CHANNEL.invokeExact(1024, Targets.DROP_OLDEST, 1024, logFile);
+        message = (Object) Targets.NEW_MESSAGE.invokeExact("Alice", "Bob",
+            "Wkh vhfuhw phhwlqj lv dw plgqljkw", 3, true);
+    }
+
+    @TearDown
+    @SuppressWarnings("unchecked")
+    public void tearDown() throws Throwable {
+        // Closing the channel waits for the log's pending compression, so every rotated segment is listed below
+        Targets.CLOSE_CHANNEL.invokeExact(channel);
+        Targets.SET_QUIET.invokeExact(false);
+        System.setOut(console);
+        if (logFile != null) {
+            for (Path segment : (List<Path>) Targets.LOG_SEGMENTS.invokeExact(logFile)) {
+                Files.deleteIfExists(segment);
+            }
+        }
+    }
+
+    @Benchmark
+    public Object sendMessage() throws Throwable {
+        boolean sent = (boolean) Targets.SEND_MESSAGE.invokeExact(channel, message);
+        return sent ? (Object) Targets.RECEIVE.invokeExact(channel, "Bob") : null;
+    }
+}
@@ -0,0 +1,69 @@
+package cybersecurity.bench;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * encrypt/decrypt across input sizes and character mixes, plus the raw
+ * in-place byte kernel the String methods are built on
+ *
+ * @author Cybersecurity Project
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CipherBenchmark {
+
+    @Param({"16", "1024", "65536", "1048576"})
+    public int size;
+
+    @Param({"LETTERS", "PROSE", "SYMBOLS", "UNICODE"})
+    public String mix;
+
+    private String plaintext;
+    private String ciphertext;
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() throws Throwable {
+        plaintext = Inputs.text(size, mix);
+        ciphertext = (String) Targets.ADVANCED_ENCRYPT.invokeExact(plaintext, 3);
+        bytes = plaintext.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public String encrypt() throws Throwable {
+        return (String) Targets.ADVANCED_ENCRYPT.invokeExact(plaintext, 3);
+    }
+
+    @Benchmark
+    public String decrypt() throws Throwable {
+        return (String) Targets.ADVANCED_DECRYPT.invokeExact(ciphertext, 3);
+    }
+
+    /**
+     * Shifts the same buffer forward every call; the contents stay valid
+     * input, so there is no reset cost to subtract
+     */
+    @Benchmark
+    public byte[] kernelInPlace() throws Throwable {
+        Targets.KERNEL_TRANSFORM.invokeExact(bytes, 0, bytes.length, 3);
+        return bytes;
+    }
+}
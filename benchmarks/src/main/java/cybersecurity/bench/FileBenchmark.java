@@ -0,0 +1,82 @@
+package cybersecurity.bench;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * encryptFile and the parallel file path on generated multi-MB files
+ * The input is generated once per trial in a temporary directory. Each call
+ * overwrites the same output file, so the numbers include the page-cache
+ * write cost but not disk latency.
+ *
+ * @author Cybersecurity Project
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileBenchmark {
+
+    @Param({"4", "64"})
+    public int megabytes;
+
+    private Path directory;
+    private Path input;
+    private Path output;
+    private PrintStream console;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("cipher-bench");
+        input = directory.resolve("input.txt");
+        output = directory.resolve("output.txt");
+        byte[] block = Inputs.text(1 << 20, "PROSE").getBytes(StandardCharsets.UTF_8);
+        try (OutputStream out = Files.newOutputStream(input)) {
+            for (int i = 0; i < megabytes; i++) {
+                out.write(block);
+            }
+        }
+        console = System.out;
+        System.setOut(Targets.nullPrintStream());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        System.setOut(console);
+        Files.deleteIfExists(input);
+        Files.deleteIfExists(output);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public void encryptFile() throws Throwable {
+        Targets.ENCRYPT_FILE.invokeExact(input.toString(), output.toString(), 3);
+    }
+
+    @Benchmark
+    public long encryptFileParallel() throws Throwable {
+        return (long) Targets.ENCRYPT_FILE_PARALLEL.invokeExact(input, output, 3);
+    }
+}
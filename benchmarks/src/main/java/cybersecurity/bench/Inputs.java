@@ -0,0 +1,64 @@
+package cybersecurity.bench;
+
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic benchmark inputs
+ *
+ * @author Cybersecurity Project
+ * @version 1.0
+ */
+final class Inputs {
+
+    private static final String PROSE = "The quick brown fox jumps over the lazy dog. "
+        + "Meet me at the old bridge at midnight, and bring the documents! "
+        + "Attack at dawn; retreat is not an option (repeat: NOT an option). ";
+    private static final String SYMBOLS = "0123456789 .,;:!?-+*/=()[]{}<>@#$%&_\n";
+    private static final String ACCENTED = "Ça va très bien, señor Müller — naïve café déjà vu. ";
+
+    private Inputs() {
+    }
+
+    /**
+     * @param length Characters to generate
+     * @param mix One of LETTERS, PROSE, SYMBOLS, UNICODE
+     * @return Text of exactly that length
+     */
+    static String text(int length, String mix) {
+        StringBuilder text = new StringBuilder(length);
+        SplittableRandom random = new SplittableRandom(42);
+        switch (mix) {
+            case "LETTERS":
+                while (text.length() < length) {
+                    text.append((char) ('A' + random.nextInt(26)));
+                }
+                break;
+            case "PROSE":
+                repeat(text, PROSE, length);
+                break;
+            case "SYMBOLS":
+                // About one letter in ten, the rest digits and punctuation
+                while (text.length() < length) {
+                    text.append(random.nextInt(10) == 0
+                        ? (char) ('a' + random.nextInt(26))
+                        : SYMBOLS.charAt(random.nextInt(SYMBOLS.length())));
+                }
+                break;
+            case "UNICODE":
+                while (text.length() < length) {
+                    text.append(random.nextBoolean() ? PROSE : ACCENTED);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown mix: " + mix);
+        }
+        text.setLength(length);
+        return text.toString();
+    }
+
+    private static void repeat(StringBuilder text, String unit, int length) {
+        while (text.length() < length) {
+            text.append(unit);
+        }
+    }
+}
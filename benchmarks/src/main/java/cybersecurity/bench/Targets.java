@@ -0,0 +1,128 @@
+package cybersecurity.bench;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Method handles into the project classes
+ * The project classes live in the unnamed package. Java code in a named
+ * package cannot import them, and JMH will not generate benchmarks in the
+ * unnamed package. So the benchmarks reach the code through handles resolved
+ * once, here. Every handle is static final and erased to Object, so the JIT
+ * treats the invokeExact calls as constants and inlines through them. The
+ * benchmarks therefore measure the target method, not reflection.
+ *
+ * @author Cybersecurity Project
+ * @version 1.0
+ */
+final class Targets {
+
+    static final MethodHandle ADVANCED_ENCRYPT;
+    static final MethodHandle ADVANCED_DECRYPT;
+    static final MethodHandle KERNEL_TRANSFORM;
+    static final MethodHandle FREQUENCY_ANALYSIS;
+    static final MethodHandle BRUTE_FORCE_ATTACK;
+    static final MethodHandle CRACK;
+    static final MethodHandle NGRAM_CRACK;
+    static final MethodHandle ENCRYPT_FILE;
+    static final MethodHandle ENCRYPT_FILE_PARALLEL;
+    static final MethodHandle NEW_MESSAGE;
+    static final MethodHandle NEW_CHANNEL;
+    static final MethodHandle SEND_MESSAGE;
+    static final MethodHandle RECEIVE;
+    static final MethodHandle CLOSE_CHANNEL;
+    static final MethodHandle SET_QUIET;
+    static final MethodHandle LOG_SEGMENTS;
+    static final Object DROP_OLDEST;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            Class<?> advanced = Class.forName("CaesarCipherAdvanced");
+            Class<?> basic = Class.forName("CaesarCipher");
+            Class<?> kernel = Class.forName("CaesarKernel");
+            Class<?> cracker = Class.forName("CaesarCracker");
+            Class<?> fileCipher = Class.forName("FileCipher");
+            Class<?> message = Class.forName("CaesarCipherAdvanced$Message");
+            Class<?> channel = Class.forName("CaesarCipherAdvanced$CommunicationChannel");
+            Class<?> policy = Class.forName("CaesarCipherAdvanced$CommunicationChannel$OverflowPolicy");
+            // Message and CommunicationChannel are package-private
+            MethodHandles.Lookup messageLookup = MethodHandles.privateLookupIn(message, lookup);
+            MethodHandles.Lookup channelLookup = MethodHandles.privateLookupIn(channel, lookup);
+
+            MethodType stringInt = MethodType.methodType(String.class, String.class, int.class);
+            ADVANCED_ENCRYPT = lookup.findStatic(advanced, "encrypt", stringInt);
+            ADVANCED_DECRYPT = lookup.findStatic(advanced, "decrypt", stringInt);
+            KERNEL_TRANSFORM = lookup.findStatic(kernel, "transform",
+                MethodType.methodType(void.class, byte[].class, int.class, int.class, int.class));
+            FREQUENCY_ANALYSIS = erase(lookup.findStatic(advanced, "frequencyAnalysis",
+                MethodType.methodType(Class.forName("LetterHistogram"), String.class)));
+            BRUTE_FORCE_ATTACK = lookup.findStatic(basic, "bruteForceAttack",
+                MethodType.methodType(void.class, String.class));
+            CRACK = erase(lookup.findStatic(cracker, "crack",
+                MethodType.methodType(Class.forName("CaesarCracker$Result"), CharSequence.class)));
+            Class<?> ngram = Class.forName("NgramScorer");
+            NGRAM_CRACK = lookup.findVirtual(ngram, "crack", MethodType.methodType(int.class, CharSequence.class))
+                .bindTo(lookup.findStatic(ngram, "english", MethodType.methodType(ngram)).invoke());
+            ENCRYPT_FILE = lookup.findStatic(advanced, "encryptFile",
+                MethodType.methodType(void.class, String.class, String.class, int.class));
+            ENCRYPT_FILE_PARALLEL = lookup.findStatic(fileCipher, "encryptParallel",
+                MethodType.methodType(long.class, Path.class, Path.class, int.class));
+            NEW_MESSAGE = erase(messageLookup.findConstructor(message,
+                MethodType.methodType(void.class, String.class, String.class, String.class, int.class, boolean.class)));
+            NEW_CHANNEL = erase(channelLookup.findConstructor(channel,
+                MethodType.methodType(void.class, int.class, policy, int.class, Path.class)));
+            SEND_MESSAGE = erase(channelLookup.findVirtual(channel, "sendMessage",
+                MethodType.methodType(boolean.class, message)));
+            RECEIVE = erase(channelLookup.findVirtual(channel, "receive",
+                MethodType.methodType(message, String.class)));
+            CLOSE_CHANNEL = erase(channelLookup.findVirtual(channel, "close", MethodType.methodType(void.class)));
+            Class<?> metrics = Class.forName("Metrics");
+            SET_QUIET = erase(lookup.findVirtual(metrics, "setQuiet",
+                MethodType.methodType(void.class, boolean.class))
+                .bindTo(lookup.findStatic(metrics, "get", MethodType.methodType(metrics)).invoke()));
+            LOG_SEGMENTS = lookup.findStatic(Class.forName("AsyncLogAppender"), "segments",
+                MethodType.methodType(List.class, Path.class));
+            DROP_OLDEST = MethodHandles.privateLookupIn(policy, lookup)
+                .findStaticGetter(policy, "DROP_OLDEST", policy).invoke();
+        } catch (Throwable e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private Targets() {
+    }
+
+    /**
+     * Replaces every project-specific type in a handle's signature with Object
+     */
+    private static MethodHandle erase(MethodHandle handle) {
+        MethodType type = handle.type();
+        for (int i = 0; i < type.parameterCount(); i++) {
+            if (isProjectType(type.parameterType(i))) {
+                type = type.changeParameterType(i, Object.class);
+            }
+        }
+        if (isProjectType(type.returnType())) {
+            type = type.changeReturnType(Object.class);
+        }
+        return handle.asType(type);
+    }
+
+    private static boolean isProjectType(Class<?> type) {
+        return !type.isPrimitive() && type.getPackageName().isEmpty();
+    }
+
+    /**
+     * The demo methods print to System.out; benchmarks swap in this sink so
+     * that console I/O does not dominate the measurement
+     */
+    static PrintStream nullPrintStream() {
+        return new PrintStream(OutputStream.nullOutputStream());
+    }
+}
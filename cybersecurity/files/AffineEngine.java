@@ -0,0 +1,144 @@
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * Affine cipher E(x) = (a*x + b) mod 26 behind the CipherEngine interface
+ * Atbash is the special case a = 25, b = 25 (A becomes Z, B becomes Y, and so on).
+ * Each engine builds its two 256-entry tables once. All 12 * 26 valid
+ * keys are cached and shared.
+ *
+ * @author Cybersecurity Project
+ * @version 1.0
+ */
+public final class AffineEngine implements CipherEngine {
+
+    /** Multipliers that are coprime to 26 and therefore invertible */
+    private static final int[] VALID_MULTIPLIERS = {1, 3, 5, 7, 9, 11, 15, 17, 19, 21, 23, 25};
+
+    private static final AffineEngine[][] ENGINES = new AffineEngine[26][26];
+
+    static {
+        for (int a : VALID_MULTIPLIERS) {
+            for (int b = 0; b < 26; b++) {
+                ENGINES[a][b] = new AffineEngine(a, b);
+            }
+        }
+    }
+
+    private final int a;
+    private final int b;
+    private final Transform encryptor;
+    private final Transform decryptor;
+
+    private AffineEngine(int a, int b) {
+        this.a = a;
+        this.b = b;
+        int[] forward = new int[26];
+        int[] inverse = new int[26];
+        for (int x = 0; x < 26; x++) {
+            int y = (a * x + b) % 26;
+            forward[x] = y;
+            inverse[y] = x;
+        }
+        this.encryptor = new SubstitutionTransform(forward);
+        this.decryptor = new SubstitutionTransform(inverse);
+    }
+
+    /**
+     * @param a Multiplier, must be coprime to 26 after normalization
+     * @param b Offset, any int
+     * @return The shared engine for that key
+     * @throws IllegalArgumentException If a has no inverse mod 26
+     */
+    public static AffineEngine of(int a, int b) {
+        a = CaesarKernel.normalizeShift(a);
+        AffineEngine engine = ENGINES[a][CaesarKernel.normalizeShift(b)];
+        if (engine == null) {
+            throw new IllegalArgumentException("Affine multiplier must be coprime to 26: " + a);
+        }
+        return engine;
+    }
+
+    /**
+     * @return The shared Atbash engine (reversed alphabet)
+     */
+    public static AffineEngine atbash() {
+        return ENGINES[25][25];
+    }
+
+    @Override
+    public String name() {
+        return this == atbash() ? "ATBASH" : "AFFINE-" + a + "-" + b;
+    }
+
+    @Override
+    public Transform encryptor() {
+        return encryptor;
+    }
+
+    @Override
+    public Transform decryptor() {
+        return decryptor;
+    }
+
+    @Override
+    public String toString() {
+        return name();
+    }
+
+    /**
+     * Fixed letter-to-letter mapping, keeping case
+     */
+    private static final class SubstitutionTransform implements Transform {
+        private final byte[] bytes = new byte[256];
+        private final char[] chars = new char[256];
+
+        SubstitutionTransform(int[] mapping) {
+            for (int c = 0; c < 256; c++) {
+                int mapped = c;
+                if (c >= 'A' && c <= 'Z') {
+                    mapped = 'A' + mapping[c - 'A'];
+                } else if (c >= 'a' && c <= 'z') {
+                    mapped = 'a' + mapping[c - 'a'];
+                }
+                bytes[c] = (byte) mapped;
+                chars[c] = (char) mapped;
+            }
+        }
+
+        @Override
+        public void apply(byte[] data, int offset, int length) {
+            for (int i = offset, end = offset + length; i < end; i++) {
+                data[i] = bytes[data[i] & 0xFF];
+            }
+        }
+
+        @Override
+        public void apply(char[] data, int offset, int length) {
+            for (int i = offset, end = offset + length; i < end; i++) {
+                char c = data[i];
+                if (c < 256) {
+                    data[i] = chars[c];
+                }
+            }
+        }
+
+        @Override
+        public void apply(ByteBuffer buffer, int offset, int length) {
+            // Checked against the buffer, not the backing array, which may extend past a slice
+            Objects.checkFromIndexSize(offset, length, buffer.capacity());
+            if (buffer.hasArray() && !buffer.isReadOnly()) {
+                apply(buffer.array(), buffer.arrayOffset() + offset, length);
+                return;
+            }
+            for (int i = offset, end = offset + length; i < end; i++) {
+                buffer.put(i, bytes[buffer.get(i) & 0xFF]);
+            }
+        }
+
+        @Override
+        public boolean isStateless() {
+            return true;
+        }
+    }
+}
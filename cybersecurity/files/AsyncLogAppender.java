@@ -0,0 +1,615 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Asynchronous, group-committing text log appender
+ * append() only puts the record on a lock-free queue, which takes microseconds.
+ * A background writer thread formats the records, batches them by count
+ * or time, and encodes each batch into a 64 KiB direct buffer that is
+ * written to a FileChannel that stays open, one buffer-full at a time. It
+ * syncs to disk according to the FsyncPolicy.
+ *
+ * With a Rotation, the writer starts a new file once the current one reaches
+ * a size or an age. The closed file is renamed to "<file>.<n>", where n
+ * counts up from 1, and is then gzipped to "<file>.<n>.gz" on a background
+ * thread so the writer never waits for compression. segments() lists them
+ * all for readers.
+ *
+ * close() drains everything still queued and waits for pending compression.
+ * A shutdown hook does the same if the JVM exits before close() is called.
+ * Records appended while close() is running may be refused, but a record
+ * append() accepted is always written: the writer only stops once no
+ * append() is between its closed check and its enqueue.
+ *
+ * @param <T> Record type
+ * @author Cybersecurity Project
+ * @version 1.0
+ */
+public final class AsyncLogAppender<T> implements AutoCloseable {
+
+    /**
+     * When written batches are forced to the storage device
+     */
+    public enum FsyncPolicy {
+        /** Leave it to the operating system */
+        NEVER,
+        /** After every batch; safest, slowest */
+        EVERY_BATCH,
+        /** At most once per fsync interval */
+        INTERVAL
+    }
+
+    /**
+     * Renders one record as text; called on the writer thread only
+     * @param <T> Record type
+     */
+    public interface RecordFormatter<T> {
+        void format(T record, StringBuilder out);
+    }
+
+    /**
+     * When the log file is closed and a new one started
+     */
+    public static final class Rotation {
+        /** Never rotate; the file grows without bound */
+        public static final Rotation NONE = new Rotation(Long.MAX_VALUE, Long.MAX_VALUE, false);
+
+        final long maxBytes;
+        final long maxAgeNanos;
+        final boolean compress;
+
+        private Rotation(long maxBytes, long maxAgeNanos, boolean compress) {
+            this.maxBytes = maxBytes;
+            this.maxAgeNanos = maxAgeNanos;
+            this.compress = compress;
+        }
+
+        /**
+         * @param maxBytes Rotate once a file holds at least this many bytes
+         * @return A size-based policy that gzips closed files
+         */
+        public static Rotation bySize(long maxBytes) {
+            return of(maxBytes, Long.MAX_VALUE, TimeUnit.NANOSECONDS, true);
+        }
+
+        /**
+         * @param maxBytes Rotate once a file holds at least this many bytes; Long.MAX_VALUE for no limit
+         * @param maxAge Rotate once a non-empty file is this old; Long.MAX_VALUE for no limit
+         * @param unit Unit of maxAge
+         * @param compress Whether closed files are gzipped in the background
+         * @return The policy
+         */
+        public static Rotation of(long maxBytes, long maxAge, TimeUnit unit, boolean compress) {
+            if (maxBytes <= 0 || maxAge <= 0) {
+                throw new IllegalArgumentException("maxBytes and maxAge must be positive");
+            }
+            return new Rotation(maxBytes, unit.toNanos(maxAge), compress);
+        }
+    }
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 8192;
+    public static final int DEFAULT_MAX_BATCH = 512;
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 5;
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long LINGER_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private static final String COMPRESSED_SUFFIX = ".gz";
+
+    private final Path file;
+    private FileChannel channel;
+    private final RecordFormatter<T> formatter;
+    private final BoundedMessageQueue<T> queue;
+    private final int maxBatch;
+    private final long maxDelayNanos;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalNanos;
+    private final Rotation rotation;
+    private final ExecutorService compressor;
+    private final Thread writer;
+    private final Thread shutdownHook;
+
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong rotations = new AtomicLong();
+    private volatile boolean sleeping;
+    private volatile boolean closed;
+    private final AtomicInteger appending = new AtomicInteger();
+
+    // Writer-thread state
+    private final StringBuilder text = new StringBuilder(64 * 1024);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final ByteBuffer bytes = ByteBuffer.allocateDirect(64 * 1024);
+    private long lastFsync = System.nanoTime();
+    private long segmentBytes;
+    private long segmentStart = System.nanoTime();
+    private long nextSegment;
+
+    /**
+     * Opens an appender with default batching and no fsync
+     * @param file The log file; created if missing, appended to otherwise
+     * @param formatter Renders each record
+     * @throws IOException If the file cannot be opened
+     */
+    public AsyncLogAppender(Path file, RecordFormatter<T> formatter) throws IOException {
+        this(file, formatter, DEFAULT_QUEUE_CAPACITY, DEFAULT_MAX_BATCH, DEFAULT_MAX_DELAY_MILLIS,
+            FsyncPolicy.NEVER, 0);
+    }
+
+    /**
+     * @param file The log file; created if missing, appended to otherwise
+     * @param formatter Renders each record
+     * @param queueCapacity Records that may wait before append() blocks
+     * @param maxBatch Records written per group commit at most
+     * @param maxDelayMillis How long a started batch may wait to fill up
+     * @param fsyncPolicy When to force data to disk
+     * @param fsyncIntervalMillis Minimum gap between syncs for INTERVAL
+     * @throws IOException If the file cannot be opened
+     */
+    public AsyncLogAppender(Path file, RecordFormatter<T> formatter, int queueCapacity, int maxBatch,
+                            long maxDelayMillis, FsyncPolicy fsyncPolicy, long fsyncIntervalMillis)
+            throws IOException {
+        this(file, formatter, queueCapacity, maxBatch, maxDelayMillis, fsyncPolicy, fsyncIntervalMillis,
+            Rotation.NONE);
+    }
+
+    /**
+     * @param file The log file; created if missing, appended to otherwise
+     * @param formatter Renders each record
+     * @param queueCapacity Records that may wait before append() blocks
+     * @param maxBatch Records written per group commit at most
+     * @param maxDelayMillis How long a started batch may wait to fill up
+     * @param fsyncPolicy When to force data to disk
+     * @param fsyncIntervalMillis Minimum gap between syncs for INTERVAL
+     * @param rotation When to start a new file
+     * @throws IOException If the file cannot be opened
+     */
+    public AsyncLogAppender(Path file, RecordFormatter<T> formatter, int queueCapacity, int maxBatch,
+                            long maxDelayMillis, FsyncPolicy fsyncPolicy, long fsyncIntervalMillis,
+                            Rotation rotation) throws IOException {
+        this.file = file;
+        this.channel = openFile(file);
+        this.segmentBytes = channel.size();
+        this.rotation = rotation;
+        this.formatter = formatter;
+        this.queue = new BoundedMessageQueue<>(queueCapacity);
+        this.maxBatch = maxBatch;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(fsyncIntervalMillis);
+
+        if (rotation.compress) {
+            this.compressor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "log-compressor-" + file.getFileName());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.compressor = null;
+        }
+        // Continue numbering after existing segments, and finish compressing any an earlier run left behind
+        for (Path segment : segments(file)) {
+            if (!segment.equals(file)) {
+                nextSegment = Math.max(nextSegment, segmentNumber(file, segment));
+                if (compressor != null && !segment.getFileName().toString().endsWith(COMPRESSED_SUFFIX)) {
+                    compressor.execute(() -> compress(segment));
+                }
+            }
+        }
+
+        this.writer = new Thread(this::writeLoop, "log-writer-" + file.getFileName());
+        this.writer.setDaemon(true);
+        this.shutdownHook = new Thread(this::drainOnShutdown, "log-writer-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+        this.writer.start();
+    }
+
+    /**
+     * Queues a record for writing
+     * Waits only while the queue is full, which means the disk cannot keep up.
+     * @param record The record to log
+     * @return False if the appender is closed or the wait was interrupted
+     */
+    public boolean append(T record) {
+        // Counted before closed is read, so the writer cannot stop while this record is on its way in
+        appending.incrementAndGet();
+        try {
+            if (closed) {
+                return false;
+            }
+            if (!queue.offer(record)) {
+                try {
+                    if (!queue.offer(record, Long.MAX_VALUE, TimeUnit.NANOSECONDS)) {
+                        return false;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        } finally {
+            appending.decrementAndGet();
+        }
+        appended.incrementAndGet();
+        if (sleeping) {
+            LockSupport.unpark(writer);
+        }
+        return true;
+    }
+
+    /**
+     * Waits until every record appended before this call has been written
+     * @param timeout How long to wait
+     * @param unit Unit of the timeout
+     * @return True if everything was written in time
+     * @throws InterruptedException If interrupted while waiting
+     */
+    public boolean flush(long timeout, TimeUnit unit) throws InterruptedException {
+        long target = appended.get();
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (written.get() < target) {
+            if (!writer.isAlive() || System.nanoTime() > deadline) {
+                return false;
+            }
+            LockSupport.unpark(writer);
+            Thread.sleep(1);
+        }
+        return true;
+    }
+
+    /**
+     * Stops accepting records, writes whatever is queued and closes the file
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(writer);
+        boolean interrupted = false;
+        while (writer.isAlive()) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // JVM is already shutting down
+        }
+        if (compressor != null) {
+            compressor.shutdown();
+            try {
+                compressor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return The file being written
+     */
+    public Path file() {
+        return file;
+    }
+
+    /**
+     * @return Records accepted by append()
+     */
+    public long appendedRecords() {
+        return appended.get();
+    }
+
+    /**
+     * @return Records written to the file
+     */
+    public long writtenRecords() {
+        return written.get();
+    }
+
+    /**
+     * @return Group commits performed
+     */
+    public long batches() {
+        return batches.get();
+    }
+
+    /**
+     * @return Failed writes, syncs, rotations or compressions; details go to stderr
+     */
+    public long errors() {
+        return errors.get();
+    }
+
+    /**
+     * @return Files closed and renamed by rotation
+     */
+    public long rotations() {
+        return rotations.get();
+    }
+
+    /**
+     * Lists a log's rotated segments, oldest first, followed by the file itself
+     * A segment is listed once, compressed or not, whichever exists.
+     * @param file The log file an appender writes to
+     * @return Every existing segment
+     * @throws IOException If the directory cannot be listed
+     */
+    public static List<Path> segments(Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        String prefix = file.getFileName() + ".";
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, prefix + "*")) {
+            for (Path entry : entries) {
+                long number = segmentNumber(file, entry);
+                boolean compressed = entry.getFileName().toString().endsWith(COMPRESSED_SUFFIX);
+                // While compression runs both forms exist; the plain one is complete, the .gz may not be
+                if (number > 0 && !(compressed && Files.exists(segmentPath(file, number)))) {
+                    segments.add(entry);
+                }
+            }
+        }
+        segments.sort(Comparator.comparingLong(segment -> segmentNumber(file, segment)));
+        if (Files.exists(file)) {
+            segments.add(file);
+        }
+        return segments;
+    }
+
+    /**
+     * @return The n of "<file>.<n>" or "<file>.<n>.gz", or -1 for any other name
+     */
+    private static long segmentNumber(Path file, Path segment) {
+        String name = segment.getFileName().toString();
+        String prefix = file.getFileName() + ".";
+        if (!name.startsWith(prefix)) {
+            return -1;
+        }
+        int end = name.endsWith(COMPRESSED_SUFFIX) ? name.length() - COMPRESSED_SUFFIX.length() : name.length();
+        if (end <= prefix.length()) {
+            return -1;
+        }
+        long number = 0;
+        for (int i = prefix.length(); i < end; i++) {
+            char c = name.charAt(i);
+            if (c < '0' || c > '9' || number > Long.MAX_VALUE / 10) {
+                return -1;
+            }
+            number = number * 10 + (c - '0');
+        }
+        return number;
+    }
+
+    private static Path segmentPath(Path file, long number) {
+        return file.resolveSibling(file.getFileName() + "." + number);
+    }
+
+    private static FileChannel openFile(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.APPEND);
+    }
+
+    private void drainOnShutdown() {
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeLoop() {
+        try {
+            while (true) {
+                T first = queue.poll();
+                if (first == null) {
+                    if (closed) {
+                        if (appending.get() == 0 && queue.isEmpty()) {
+                            break;
+                        }
+                        // An append() saw closed == false and has not enqueued yet
+                        Thread.yield();
+                        continue;
+                    }
+                    sleeping = true;
+                    if (queue.isEmpty() && !closed) {
+                        LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                    }
+                    sleeping = false;
+                    continue;
+                }
+                writeBatch(first);
+            }
+        } finally {
+            try {
+                if (fsyncPolicy != FsyncPolicy.NEVER) {
+                    channel.force(false);
+                }
+                channel.close();
+            } catch (IOException e) {
+                errors.incrementAndGet();
+                System.err.println("Error closing log file: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Collects up to maxBatch records, waiting at most maxDelay for more to
+     * arrive, then encodes and writes them as one batch
+     */
+    private void writeBatch(T first) {
+        if (segmentBytes > 0 && (segmentBytes >= rotation.maxBytes
+                || System.nanoTime() - segmentStart >= rotation.maxAgeNanos)) {
+            rotate();
+        }
+        text.setLength(0);
+        formatter.format(first, text);
+        int count = 1;
+        long deadline = System.nanoTime() + maxDelayNanos;
+        while (count < maxBatch) {
+            T next = queue.poll();
+            if (next == null) {
+                long remaining = deadline - System.nanoTime();
+                if (closed || remaining <= 0) {
+                    break;
+                }
+                LockSupport.parkNanos(this, Math.min(remaining, LINGER_PARK_NANOS));
+                continue;
+            }
+            formatter.format(next, text);
+            count++;
+        }
+
+        try {
+            long bytesWritten = writeText();
+            segmentBytes += bytesWritten;
+            batches.incrementAndGet();
+            Metrics.get().recordLogBatch(count, bytesWritten);
+            long now = System.nanoTime();
+            if (fsyncPolicy == FsyncPolicy.EVERY_BATCH
+                    || (fsyncPolicy == FsyncPolicy.INTERVAL && now - lastFsync >= fsyncIntervalNanos)) {
+                channel.force(false);
+                lastFsync = System.nanoTime();
+                Metrics.get().recordFsync(lastFsync - now);
+            }
+        } catch (IOException e) {
+            errors.incrementAndGet();
+            System.err.println("Error writing to log file: " + e.getMessage());
+        }
+        written.addAndGet(count);
+    }
+
+    /**
+     * Renames the current file to the next segment number while it is still
+     * open, opens a fresh one, and only then closes the old channel and hands
+     * the segment to the compressor. If the rename or the open fails, the
+     * old channel stays in use and logging carries on unrotated.
+     */
+    private void rotate() {
+        segmentStart = System.nanoTime();
+        Path segment = segmentPath(file, nextSegment + 1);
+        try {
+            if (fsyncPolicy != FsyncPolicy.NEVER) {
+                channel.force(false);
+            }
+            Files.move(file, segment, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            errors.incrementAndGet();
+            System.err.println("Error rotating log file: " + e.getMessage());
+            return;
+        }
+        FileChannel next;
+        try {
+            next = openFile(file);
+        } catch (IOException e) {
+            errors.incrementAndGet();
+            System.err.println("Error opening new log file: " + e.getMessage());
+            try {
+                Files.move(segment, file, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException undo) {
+                // The old channel still writes to the renamed file, which segments() lists
+                nextSegment++;
+                System.err.println("Error restoring log file name: " + undo.getMessage());
+            }
+            return;
+        }
+        nextSegment++;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            errors.incrementAndGet();
+            System.err.println("Error closing rotated log file: " + e.getMessage());
+        }
+        channel = next;
+        segmentBytes = 0;
+        rotations.incrementAndGet();
+        if (compressor != null) {
+            compressor.execute(() -> compress(segment));
+        }
+    }
+
+    /**
+     * Gzips one closed segment next to itself, then removes the original
+     * Writes to a temporary name first, so a crash never leaves a truncated .gz.
+     */
+    private void compress(Path segment) {
+        Path target = segment.resolveSibling(segment.getFileName() + COMPRESSED_SUFFIX);
+        Path temporary = segment.resolveSibling(segment.getFileName() + COMPRESSED_SUFFIX + ".tmp");
+        try {
+            try (InputStream in = Files.newInputStream(segment);
+                 OutputStream out = new GZIPOutputStream(Files.newOutputStream(temporary), 64 * 1024)) {
+                in.transferTo(out);
+            }
+            Files.setLastModifiedTime(temporary, Files.getLastModifiedTime(segment));
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+            Files.delete(segment);
+        } catch (IOException e) {
+            errors.incrementAndGet();
+            System.err.println("Error compressing log segment " + segment + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return Number of bytes written
+     */
+    private long writeText() throws IOException {
+        CharBuffer chars = CharBuffer.wrap(text);
+        encoder.reset();
+        CoderResult result;
+        long total = 0;
+        do {
+            result = encoder.encode(chars, bytes, true);
+            total += drainBytes();
+        } while (result.isOverflow());
+        do {
+            result = encoder.flush(bytes);
+            total += drainBytes();
+        } while (result.isOverflow());
+        return total;
+    }
+
+    private int drainBytes() throws IOException {
+        bytes.flip();
+        int length = bytes.remaining();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+        return length;
+    }
+}
@@ -0,0 +1,366 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Concurrent key recovery for large queues of short ciphertexts
+ * Messages are pulled from the source in batches and cracked on a fixed
+ * worker pool. A semaphore caps the number of batches in flight, so a
+ * fast producer blocks instead of filling the heap. Each worker reuses
+ * its own counting arrays, and only the winning plaintext is materialised.
+ * Messages under NGRAM_THRESHOLD letters are scored by NgramScorer,
+ * because letter frequencies are unreliable at that length.
+ *
+ * Results reach the sink from worker threads, in completion order.
+ *
+ * @author Cybersecurity Project
+ * @version 1.0
+ */
+public final class BatchCracker {
+
+    /** Messages handed to a worker at once */
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    /** Messages with fewer letters are scored by NgramScorer instead of letter frequencies */
+    public static final int NGRAM_THRESHOLD = 100;
+
+    /** Scorer column for messages ranked by CaesarCracker's chi-squared */
+    public static final String SCORER_CHI2 = "chi2";
+
+    /** Scorer column for messages ranked by NgramScorer */
+    public static final String SCORER_NGRAM = "ngram";
+
+    private final int workers;
+    private final int batchSize;
+    private final int maxBatchesInFlight;
+    private final int ranks;
+
+    /**
+     * Creates an engine with one worker per core and default batching
+     */
+    public BatchCracker() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_BATCH_SIZE,
+            Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    /**
+     * @param workers Number of worker threads
+     * @param batchSize Messages per task
+     * @param maxBatchesInFlight Batches queued or running before the producer blocks
+     */
+    public BatchCracker(int workers, int batchSize, int maxBatchesInFlight) {
+        this(workers, batchSize, maxBatchesInFlight, 1);
+    }
+
+    /**
+     * @param workers Number of worker threads
+     * @param batchSize Messages per task
+     * @param maxBatchesInFlight Batches queued or running before the producer blocks
+     * @param ranks Candidate shifts reported per message, best first (1-26)
+     */
+    public BatchCracker(int workers, int batchSize, int maxBatchesInFlight, int ranks) {
+        if (workers <= 0 || batchSize <= 0 || maxBatchesInFlight <= 0) {
+            throw new IllegalArgumentException("workers, batchSize and maxBatchesInFlight must be positive");
+        }
+        if (ranks < 1 || ranks > 26) {
+            throw new IllegalArgumentException("ranks must be between 1 and 26: " + ranks);
+        }
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.maxBatchesInFlight = maxBatchesInFlight;
+        this.ranks = ranks;
+    }
+
+    /**
+     * Cracks every line of a UTF-8 file; ids are 1-based line numbers
+     * @param file One ciphertext per line
+     * @param sink Receives one result per line, must be thread-safe
+     * @return Throughput and latency figures
+     * @throws IOException If the file cannot be read
+     */
+    public Stats crack(Path file, Consumer<CrackedMessage> sink) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return crack(reader.lines().iterator(), sink);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Cracks every element of a stream; ids are 1-based positions
+     * @param ciphertexts The messages to crack
+     * @param sink Receives one result per message, must be thread-safe
+     * @return Throughput and latency figures
+     */
+    public Stats crack(Stream<String> ciphertexts, Consumer<CrackedMessage> sink) {
+        return crack(ciphertexts.iterator(), sink);
+    }
+
+    /**
+     * Cracks every element of an iterator; ids are 1-based positions
+     * The iterator is only ever touched by the calling thread.
+     * @param ciphertexts The messages to crack
+     * @param sink Receives one result per message, must be thread-safe
+     * @return Throughput and latency figures
+     */
+    public Stats crack(Iterator<String> ciphertexts, Consumer<CrackedMessage> sink) {
+        ExecutorService pool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "batch-cracker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+        Semaphore inFlight = new Semaphore(maxBatchesInFlight);
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        LatencyHistogram latency = new LatencyHistogram();
+
+        long start = System.nanoTime();
+        long id = 0;
+        try {
+            while (ciphertexts.hasNext() && failure.get() == null) {
+                List<String> batch = new ArrayList<>(batchSize);
+                while (batch.size() < batchSize && ciphertexts.hasNext()) {
+                    batch.add(ciphertexts.next());
+                }
+                long firstId = id + 1;
+                id += batch.size();
+
+                inFlight.acquireUninterruptibly();
+                long submitted = System.nanoTime();
+                pool.execute(() -> {
+                    try {
+                        Scratch s = scratch.get();
+                        for (int i = 0; i < batch.size(); i++) {
+                            sink.accept(crackOne(firstId + i, batch.get(i), s, ranks));
+                            latency.record(System.nanoTime() - submitted);
+                        }
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+            inFlight.acquireUninterruptibly(maxBatchesInFlight);
+        } finally {
+            pool.shutdown();
+        }
+
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        return new Stats(id, System.nanoTime() - start, latency);
+    }
+
+    private static CrackedMessage crackOne(long id, String ciphertext, Scratch s, int ranks) {
+        long letters = LetterHistogram.countLetters(ciphertext, s.counts);
+        boolean ngram = letters < NGRAM_THRESHOLD;
+        int shift = ngram
+            ? NgramScorer.english().scoreShifts(ciphertext, s.scores)
+            : CaesarCracker.score(s.counts, letters, s.scores);
+        CaesarCracker.confidences(s.scores, s.confidences);
+        CrackedMessage result = new CrackedMessage(id, shift, ngram ? SCORER_NGRAM : SCORER_CHI2,
+            s.scores[shift], s.confidences[shift], CaesarKernel.encrypt(ciphertext, -shift));
+        if (ranks > 1) {
+            result.rankedShifts = rank(s.scores, ranks);
+            result.rankedConfidences = new double[ranks];
+            for (int r = 0; r < ranks; r++) {
+                result.rankedConfidences[r] = s.confidences[result.rankedShifts[r]];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return The count shifts with the lowest scores, best first
+     */
+    private static int[] rank(double[] scores, int count) {
+        int[] ranked = new int[count];
+        boolean[] taken = new boolean[26];
+        for (int r = 0; r < count; r++) {
+            int best = -1;
+            for (int shift = 0; shift < 26; shift++) {
+                if (!taken[shift] && (best < 0 || scores[shift] < scores[best])) {
+                    best = shift;
+                }
+            }
+            taken[best] = true;
+            ranked[r] = best;
+        }
+        return ranked;
+    }
+
+    /**
+     * Creates a sink writing one tab-separated line per result:
+     * id, shift, scorer, score, confidence, [ranked shift:confidence list,] plaintext
+     * The scorer column says which scale the score is on.
+     * Writes are synchronized on the writer; flushing is left to the caller.
+     * @param writer Where to write
+     * @return A thread-safe sink
+     */
+    public static Consumer<CrackedMessage> writerSink(Writer writer) {
+        return result -> {
+            synchronized (writer) {
+                try {
+                    writer.write(result.toString());
+                    writer.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    /**
+     * Per-worker counting arrays, reused for every message
+     */
+    private static final class Scratch {
+        final long[] counts = new long[26];
+        final double[] scores = new double[26];
+        final double[] confidences = new double[26];
+    }
+
+    /**
+     * Outcome for one ciphertext
+     */
+    public static final class CrackedMessage {
+        final long id;
+        final int shift;
+        final String scorer;
+        final double score;
+        final double confidence;
+        final String plaintext;
+        int[] rankedShifts;
+        double[] rankedConfidences;
+
+        CrackedMessage(long id, int shift, String scorer, double score, double confidence, String plaintext) {
+            this.id = id;
+            this.shift = shift;
+            this.scorer = scorer;
+            this.score = score;
+            this.confidence = confidence;
+            this.plaintext = plaintext;
+        }
+
+        public long id() {
+            return id;
+        }
+
+        public int shift() {
+            return shift;
+        }
+
+        /**
+         * @return SCORER_CHI2 or SCORER_NGRAM, the scale score() is on
+         */
+        public String scorer() {
+            return scorer;
+        }
+
+        /**
+         * @return Chi-squared for long messages, quadgram score below NGRAM_THRESHOLD letters; lower is better
+         */
+        public double score() {
+            return score;
+        }
+
+        /**
+         * This shift's share of exp(-score / 2) over all 26 shifts
+         * Not a calibrated probability of being right. Both scorers treat
+         * letters (or overlapping quadgrams) as independent, and the n-gram
+         * score also subtracts NgramScorer's dictionary bonus. So a clear
+         * winner prints as 1.0000 whether or not it is correct. A low value
+         * does flag an ambiguous message.
+         * @return Confidence between 0.0 and 1.0
+         */
+        public double confidence() {
+            return confidence;
+        }
+
+        public String plaintext() {
+            return plaintext;
+        }
+
+        /**
+         * @return Candidate shifts best first, or just the best one if the cracker keeps a single rank
+         */
+        public int[] rankedShifts() {
+            return rankedShifts == null ? new int[] {shift} : rankedShifts.clone();
+        }
+
+        /**
+         * @return Confidence of each entry of rankedShifts()
+         */
+        public double[] rankedConfidences() {
+            return rankedConfidences == null ? new double[] {confidence} : rankedConfidences.clone();
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder line = new StringBuilder(plaintext.length() + 48);
+            line.append(id).append('\t').append(shift).append('\t').append(scorer).append('\t')
+                .append(String.format("%.3f\t%.4f", score, confidence)).append('\t');
+            if (rankedShifts != null) {
+                for (int r = 0; r < rankedShifts.length; r++) {
+                    line.append(r == 0 ? "" : ",").append(rankedShifts[r]).append(':')
+                        .append(String.format("%.4f", rankedConfidences[r]));
+                }
+                line.append('\t');
+            }
+            return line.append(plaintext).toString();
+        }
+    }
+
+    /**
+     * Throughput and per-message latency (submit to result) of one run
+     */
+    public static final class Stats {
+        private final long messages;
+        private final long elapsedNanos;
+        private final LatencyHistogram latency;
+
+        Stats(long messages, long elapsedNanos, LatencyHistogram latency) {
+            this.messages = messages;
+            this.elapsedNanos = elapsedNanos;
+            this.latency = latency;
+        }
+
+        public long messages() {
+            return messages;
+        }
+
+        public long elapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public LatencyHistogram latency() {
+            return latency;
+        }
+
+        /**
+         * @return Messages cracked per second
+         */
+        public double throughput() {
+            return elapsedNanos == 0 ? 0.0 : messages * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d messages in %.1f ms (%.0f msg/s) latency %s",
+                messages, elapsedNanos / 1e6, throughput(), latency.summaryMicros());
+        }
+    }
+}
@@ -0,0 +1,188 @@
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded lock-free multi-producer multi-consumer ring buffer
+ * This is Dmitry Vyukov's sequence-numbered array queue. Each slot carries a
+ * sequence number that says whether it is ready for the next producer
+ * or the next consumer. Producers and consumers only CAS their own counter,
+ * and offer/poll never allocate.
+ *
+ * The timed variants wait by spinning, then yielding, then parking briefly,
+ * so an idle waiter costs almost no CPU.
+ *
+ * @param <T> Element type; null elements are not allowed
+ * @author Cybersecurity Project
+ * @version 1.0
+ */
+public final class BoundedMessageQueue<T> {
+
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 200;
+    private static final long MAX_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(500);
+
+    private final int mask;
+    private final AtomicReferenceArray<T> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * @param capacity Maximum number of elements, rounded up to a power of two
+     */
+    public BoundedMessageQueue(int capacity) {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("capacity must be between 1 and 2^30: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.mask = size - 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds an element if there is room
+     * @param element The element to add
+     * @return False if the queue is full
+     */
+    public boolean offer(T element) {
+        if (element == null) {
+            throw new NullPointerException("element");
+        }
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.lazySet(index, element);
+                    sequences.lazySet(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Adds an element, waiting up to the timeout for room
+     * @param element The element to add
+     * @param timeout How long to wait
+     * @param unit Unit of the timeout
+     * @return False if the queue stayed full
+     * @throws InterruptedException If interrupted while waiting
+     */
+    public boolean offer(T element, long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (int attempt = 0; ; attempt++) {
+            if (offer(element)) {
+                return true;
+            }
+            if (!idle(attempt, deadline)) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Removes the oldest element if there is one
+     * @return The element, or null if the queue is empty
+     */
+    public T poll() {
+        long position = head.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - (position + 1);
+            if (difference == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    T element = slots.get(index);
+                    slots.lazySet(index, null);
+                    sequences.lazySet(index, position + mask + 1);
+                    return element;
+                }
+                position = head.get();
+            } else if (difference < 0) {
+                return null;
+            } else {
+                position = head.get();
+            }
+        }
+    }
+
+    /**
+     * Removes the oldest element, waiting up to the timeout for one to arrive
+     * @param timeout How long to wait
+     * @param unit Unit of the timeout
+     * @return The element, or null if none arrived in time
+     * @throws InterruptedException If interrupted while waiting
+     */
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (int attempt = 0; ; attempt++) {
+            T element = poll();
+            if (element != null) {
+                return element;
+            }
+            if (!idle(attempt, deadline)) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * @return Approximate number of elements; exact when no other thread is active
+     */
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, mask + 1));
+    }
+
+    /**
+     * @return True if the queue looked empty at the time of the call
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * @return Maximum number of elements
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Backs off between retries
+     * @return False once the deadline has passed
+     */
+    private static boolean idle(int attempt, long deadline) throws InterruptedException {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+            return false;
+        }
+        if (attempt < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else if (attempt < YIELD_TRIES) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(Math.min(remaining, MAX_PARK_NANOS));
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+        return true;
+    }
+}
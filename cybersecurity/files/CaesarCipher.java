@@ -14,23 +14,8 @@ public class CaesarCipher {
      * @return The encrypted message
      */
     public static String encrypt(String plaintext, int shift) {
-        StringBuilder ciphertext = new StringBuilder();
-        shift = normalizeShift(shift);
-        
-        for (char character : plaintext.toCharArray()) {
-            if (Character.isUpperCase(character)) {
-                char encryptedChar = (char) ((character - 'A' + shift) % 26 + 'A');
-                ciphertext.append(encryptedChar);
-            } else if (Character.isLowerCase(character)) {
-                char encryptedChar = (char) ((character - 'a' + shift) % 26 + 'a');
-                ciphertext.append(encryptedChar);
-            } else {
-                // Keep non-alphabetic characters unchanged
-                ciphertext.append(character);
-            }
-        }
-        
-        return ciphertext.toString();
+        // Table lookup per character; only ASCII letters are shifted
+        return CaesarEngine.of(shift).encrypt(plaintext);
     }
     
     /**
@@ -41,24 +26,13 @@ public class CaesarCipher {
      */
     public static String decrypt(String ciphertext, int shift) {
         // Decryption is encryption with negative shift
-        return encrypt(ciphertext, -shift);
-    }
-    
-    /**
-     * Normalizes the shift value to be within 0-25 range
-     * @param shift The shift value to normalize
-     * @return Normalized shift value
-     */
-    private static int normalizeShift(int shift) {
-        shift = shift % 26;
-        if (shift < 0) {
-            shift += 26;
-        }
-        return shift;
+        return CaesarEngine.of(shift).decrypt(ciphertext);
     }
     
     /**
      * Performs brute force attack on Caesar cipher by trying all possible shifts
+     * For automatic key recovery without printing every candidate, use CaesarCracker
+     * or, for messages of a few words, NgramScorer.
      * @param ciphertext The encrypted message to crack
      */
     public static void bruteForceAttack(String ciphertext) {
@@ -69,6 +43,15 @@ public class CaesarCipher {
             String decrypted = decrypt(ciphertext, shift);
             System.out.printf("Shift %2d: %s\n", shift, decrypted);
         }
+        
+        CaesarCracker.Candidate best = CaesarCracker.crack(ciphertext).best();
+        System.out.printf("\nMost likely shift (frequency analysis): %d (%.1f%% confidence)\n",
+            best.shift(), best.confidence() * 100);
+        
+        double[] scores = new double[26];
+        int likely = NgramScorer.english().scoreShifts(ciphertext, scores);
+        System.out.printf("Most likely shift (quadgrams and dictionary): %d (%.1f%% confidence)\n",
+            likely, CaesarCracker.confidence(scores, likely) * 100);
     }
     
     /**
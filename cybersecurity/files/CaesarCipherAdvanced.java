@@ -1,6 +1,13 @@
 import java.io.*;
-import java.util.*;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 
 /**
@@ -22,48 +29,209 @@ public class CaesarCipherAdvanced {
         String sender;
         String receiver;
         String content;
-        int shift;
+        CipherEngine cipher;
         LocalDateTime timestamp;
         boolean encrypted;
+        /** Session key epoch the content was encrypted under; 0 for fixed keys */
+        int keyEpoch;
         
         public Message(String sender, String receiver, String content, int shift, boolean encrypted) {
+            this(sender, receiver, content, CipherEngines.caesar(shift), encrypted);
+        }
+        
+        public Message(String sender, String receiver, String content, CipherEngine cipher, boolean encrypted) {
             this.sender = sender;
             this.receiver = receiver;
             this.content = content;
-            this.shift = shift;
+            this.cipher = cipher;
             this.timestamp = LocalDateTime.now();
             this.encrypted = encrypted;
         }
         
         @Override
         public String toString() {
-            return String.format("[%s] %s -> %s | Encrypted: %s | Shift: %d\nContent: %s",
-                timestamp.format(DATE_FORMAT), sender, receiver, encrypted, shift, content);
+            return String.format("[%s] %s -> %s | Encrypted: %s | Cipher: %s\nContent: %s",
+                timestamp.format(DATE_FORMAT), sender, receiver, encrypted, cipher.name(), content);
         }
     }
     
     /**
      * Simulates a communication channel
+     * Thread-safe and bounded: every receiver has its own lock-free mailbox
+     * of fixed capacity, and only the most recent messages are kept for display.
+     * Logging is asynchronous; close the channel to flush the log.
      */
-    static class CommunicationChannel {
-        private List<Message> messageLog;
+    static class CommunicationChannel implements AutoCloseable {
+        
+        /**
+         * What sendMessage does when the receiver's mailbox is full
+         */
+        enum OverflowPolicy {
+            /** Refuse the new message; sendMessage returns false */
+            REJECT,
+            /** Discard the receiver's oldest unread message */
+            DROP_OLDEST,
+            /** Wait until the receiver makes room */
+            BLOCK
+        }
+        
+        static final int DEFAULT_MAILBOX_CAPACITY = 1024;
+        static final int DEFAULT_HISTORY_CAPACITY = 1024;
+        /** The log rolls over to a new gzipped segment at this size; search it with LogSearch */
+        static final long DEFAULT_LOG_SEGMENT_BYTES = 64L << 20;
+        private static final ZoneId LOG_ZONE = ZoneId.systemDefault();
+        
+        private final ConcurrentMap<String, BoundedMessageQueue<Message>> mailboxes = new ConcurrentHashMap<>();
+        private final int mailboxCapacity;
+        private final OverflowPolicy overflowPolicy;
+        private final AtomicReferenceArray<Message> history;
+        private final AtomicLong sent = new AtomicLong();
+        private final AsyncLogAppender<Message> log;
+        private volatile MessageStore store;
         
         public CommunicationChannel() {
-            this.messageLog = new ArrayList<>();
+            this(DEFAULT_MAILBOX_CAPACITY, OverflowPolicy.DROP_OLDEST, DEFAULT_HISTORY_CAPACITY, Paths.get(LOG_FILE));
+        }
+        
+        /**
+         * @param historyCapacity Recent messages kept for displayMessageLog, at least 1
+         * @param logFile Where to log every message, or null to disable logging
+         */
+        public CommunicationChannel(int mailboxCapacity, OverflowPolicy overflowPolicy, int historyCapacity,
+                                    Path logFile) {
+            if (historyCapacity < 1) {
+                throw new IllegalArgumentException("historyCapacity must be at least 1: " + historyCapacity);
+            }
+            this.mailboxCapacity = mailboxCapacity;
+            this.overflowPolicy = overflowPolicy;
+            this.history = new AtomicReferenceArray<>(historyCapacity);
+            this.log = logFile == null ? null : openLog(logFile);
+        }
+        
+        private static AsyncLogAppender<Message> openLog(Path logFile) {
+            try {
+                return new AsyncLogAppender<>(logFile, CommunicationChannel::formatLogRecord,
+                    AsyncLogAppender.DEFAULT_QUEUE_CAPACITY, AsyncLogAppender.DEFAULT_MAX_BATCH,
+                    AsyncLogAppender.DEFAULT_MAX_DELAY_MILLIS, AsyncLogAppender.FsyncPolicy.NEVER, 0,
+                    AsyncLogAppender.Rotation.bySize(DEFAULT_LOG_SEGMENT_BYTES));
+            } catch (IOException e) {
+                System.err.println("Error opening log file: " + e.getMessage());
+                return null;
+            }
+        }
+        
+        /**
+         * Delivers a message to its receiver's mailbox
+         * @return False if the mailbox was full and the policy is REJECT (or BLOCK was interrupted)
+         */
+        public boolean sendMessage(Message message) {
+            long start = Metrics.ENABLED ? System.nanoTime() : 0;
+            BoundedMessageQueue<Message> mailbox = mailboxFor(message.receiver);
+            if (!deliver(mailbox, message)) {
+                Metrics.get().recordReject();
+                return false;
+            }
+            long sequence = sent.getAndIncrement();
+            history.set((int) (sequence % history.length()), message);
+            if (log != null) {
+                log.append(message);
+            }
+            MessageStore target = store;
+            if (target != null) {
+                try {
+                    target.append(message);
+                } catch (IOException e) {
+                    System.err.println("Error storing message: " + e.getMessage());
+                }
+            }
+            if (Metrics.ENABLED) {
+                Metrics.get().recordSend(System.nanoTime() - start, mailbox.size());
+            }
+            if (!Metrics.get().isQuiet()) {
+                System.out.println("\n[CHANNEL] Message transmitted successfully!");
+                System.out.println("Timestamp: " + message.timestamp.format(DATE_FORMAT));
+            }
+            return true;
+        }
+        
+        /**
+         * Also appends every sent message to a binary store; the caller keeps ownership of it
+         * @param store The store, or null to stop persisting
+         */
+        public void persistTo(MessageStore store) {
+            this.store = store;
+        }
+        
+        private boolean deliver(BoundedMessageQueue<Message> mailbox, Message message) {
+            switch (overflowPolicy) {
+                case REJECT:
+                    return mailbox.offer(message);
+                case DROP_OLDEST:
+                    while (!mailbox.offer(message)) {
+                        if (mailbox.poll() != null) {
+                            Metrics.get().recordDrop();
+                        }
+                    }
+                    return true;
+                case BLOCK:
+                default:
+                    try {
+                        return mailbox.offer(message, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                    }
+            }
+        }
+        
+        /**
+         * Takes the oldest unread message for a receiver without waiting
+         * @return The message, or null if the mailbox is empty
+         */
+        public Message receive(String receiver) {
+            return received(mailboxFor(receiver).poll());
+        }
+        
+        /**
+         * Takes the oldest unread message for a receiver, waiting up to the timeout
+         * @return The message, or null if none arrived in time
+         */
+        public Message receive(String receiver, long timeout, TimeUnit unit) throws InterruptedException {
+            return received(mailboxFor(receiver).poll(timeout, unit));
+        }
+        
+        private static Message received(Message message) {
+            if (message != null) {
+                Metrics.get().recordReceive();
+            }
+            return message;
         }
         
-        public void sendMessage(Message message) {
-            messageLog.add(message);
-            logToFile(message);
-            System.out.println("\n[CHANNEL] Message transmitted successfully!");
-            System.out.println("Timestamp: " + message.timestamp.format(DATE_FORMAT));
+        /**
+         * @return Number of unread messages waiting for a receiver
+         */
+        public int pendingMessages(String receiver) {
+            BoundedMessageQueue<Message> mailbox = mailboxes.get(receiver);
+            return mailbox == null ? 0 : mailbox.size();
         }
         
+        /**
+         * Peeks at the most recently sent message without removing it from any mailbox
+         */
         public Message receiveLatestMessage() {
-            if (messageLog.isEmpty()) {
+            long count = sent.get();
+            if (count == 0) {
                 return null;
             }
-            return messageLog.get(messageLog.size() - 1);
+            return history.get((int) ((count - 1) % history.length()));
+        }
+        
+        private BoundedMessageQueue<Message> mailboxFor(String receiver) {
+            BoundedMessageQueue<Message> mailbox = mailboxes.get(receiver);
+            if (mailbox == null) {
+                mailbox = mailboxes.computeIfAbsent(receiver, r -> new BoundedMessageQueue<>(mailboxCapacity));
+            }
+            return mailbox;
         }
         
         public void displayMessageLog() {
@@ -71,25 +239,32 @@ public class CaesarCipherAdvanced {
             System.out.println("║ COMMUNICATION CHANNEL - MESSAGE LOG                        ║");
             System.out.println("╚════════════════════════════════════════════════════════════╝\n");
             
-            if (messageLog.isEmpty()) {
+            long count = sent.get();
+            if (count == 0) {
                 System.out.println("No messages transmitted yet.");
                 return;
             }
             
-            for (int i = 0; i < messageLog.size(); i++) {
-                System.out.printf("Message #%d:\n%s\n\n", i + 1, messageLog.get(i));
+            long first = Math.max(0, count - history.length());
+            for (long i = first; i < count; i++) {
+                System.out.printf("Message #%d:\n%s\n\n", i + 1, history.get((int) (i % history.length())));
             }
         }
         
-        private void logToFile(Message message) {
-            try (FileWriter fw = new FileWriter(LOG_FILE, true);
-                 PrintWriter pw = new PrintWriter(fw)) {
-                pw.println("=".repeat(80));
-                pw.println(message);
-                pw.println("=".repeat(80));
-                pw.println();
-            } catch (IOException e) {
-                System.err.println("Error writing to log file: " + e.getMessage());
+        /**
+         * Renders one log entry as a MessageLogFormat line; runs on the log writer thread
+         */
+        private static void formatLogRecord(Message message, StringBuilder out) {
+            MessageLogFormat.format(message, LOG_ZONE, out);
+        }
+        
+        /**
+         * Flushes and closes the message log
+         */
+        @Override
+        public void close() {
+            if (log != null) {
+                log.close();
             }
         }
     }
@@ -99,15 +274,32 @@ public class CaesarCipherAdvanced {
      */
     static class User {
         String name;
-        int secretKey;
+        CipherEngine secretKey;
+        KeyManager keys;
         
         public User(String name, int secretKey) {
+            this(name, CipherEngines.caesar(secretKey));
+        }
+        
+        public User(String name, CipherEngine secretKey) {
             this.name = name;
             this.secretKey = secretKey;
         }
         
+        /**
+         * A user whose keys are per-peer session keys from a KeyManager
+         */
+        public User(String name, KeyManager keys) {
+            this.name = name;
+            this.keys = keys;
+            keys.register(name);
+        }
+        
         public Message encryptAndSend(String plaintext, String receiverName) {
-            String encrypted = encrypt(plaintext, secretKey);
+            if (keys != null) {
+                return keys.seal(this.name, receiverName, plaintext);
+            }
+            String encrypted = secretKey.encrypt(plaintext);
             return new Message(this.name, receiverName, encrypted, secretKey, true);
         }
         
@@ -121,7 +313,20 @@ public class CaesarCipherAdvanced {
                 return message.content;
             }
             
-            return decrypt(message.content, message.shift);
+            if (keys != null) {
+                String plaintext = keys.open(message);
+                if (plaintext == null) {
+                    System.out.println("[ERROR] Session key epoch " + message.keyEpoch + " has expired!");
+                }
+                return plaintext;
+            }
+            
+            if (message.cipher == CipherEngines.session()) {
+                System.out.println("[ERROR] Session-sealed message, but no key manager to open it!");
+                return null;
+            }
+            
+            return message.cipher.decrypt(message.content);
         }
     }
     
@@ -129,78 +334,40 @@ public class CaesarCipherAdvanced {
      * Encrypts text using Caesar cipher
      */
     public static String encrypt(String plaintext, int shift) {
-        StringBuilder ciphertext = new StringBuilder();
-        shift = normalizeShift(shift);
-        
-        for (char character : plaintext.toCharArray()) {
-            if (Character.isUpperCase(character)) {
-                char encryptedChar = (char) ((character - 'A' + shift) % 26 + 'A');
-                ciphertext.append(encryptedChar);
-            } else if (Character.isLowerCase(character)) {
-                char encryptedChar = (char) ((character - 'a' + shift) % 26 + 'a');
-                ciphertext.append(encryptedChar);
-            } else {
-                ciphertext.append(character);
-            }
-        }
-        
-        return ciphertext.toString();
+        return CipherEngines.caesar(shift).encrypt(plaintext);
     }
     
     /**
      * Decrypts text using Caesar cipher
      */
     public static String decrypt(String ciphertext, int shift) {
-        return encrypt(ciphertext, -shift);
-    }
-    
-    private static int normalizeShift(int shift) {
-        shift = shift % 26;
-        if (shift < 0) {
-            shift += 26;
-        }
-        return shift;
+        return CipherEngines.caesar(shift).decrypt(ciphertext);
     }
     
     /**
-     * Performs frequency analysis on ciphertext
+     * Performs frequency analysis on ciphertext and prints the bar chart
+     * @return The letter histogram, for callers that want the numbers
      */
-    public static void frequencyAnalysis(String text) {
-        Map<Character, Integer> frequency = new HashMap<>();
-        int totalLetters = 0;
-        
-        for (char c : text.toUpperCase().toCharArray()) {
-            if (Character.isLetter(c)) {
-                frequency.put(c, frequency.getOrDefault(c, 0) + 1);
-                totalLetters++;
-            }
-        }
+    public static LetterHistogram frequencyAnalysis(String text) {
+        LetterHistogram histogram = LetterHistogram.of(text);
         
         System.out.println("\n╔════════════════════════════════════════════════════════════╗");
         System.out.println("║ FREQUENCY ANALYSIS                                         ║");
         System.out.println("╚════════════════════════════════════════════════════════════╝\n");
         
-        frequency.entrySet().stream()
-            .sorted((e1, e2) -> e2.getValue().compareTo(e1.getValue()))
-            .forEach(entry -> {
-                double percentage = (entry.getValue() * 100.0) / totalLetters;
-                String bar = "█".repeat((int) (percentage * 2));
-                System.out.printf("%c: %3d (%.2f%%) %s\n", 
-                    entry.getKey(), entry.getValue(), percentage, bar);
-            });
+        histogram.printChart(System.out);
+        return histogram;
     }
     
     /**
      * Encrypts a file using Caesar cipher
+     * Streams the raw bytes, so line endings and non-letter bytes are preserved exactly
      */
     public static void encryptFile(String inputFile, String outputFile, int shift) {
-        try (BufferedReader reader = new BufferedReader(new FileReader(inputFile));
-             BufferedWriter writer = new BufferedWriter(new FileWriter(outputFile))) {
-            
-            String line;
-            while ((line = reader.readLine()) != null) {
-                writer.write(encrypt(line, shift));
-                writer.newLine();
+        try {
+            FileCipher.encrypt(Paths.get(inputFile), Paths.get(outputFile), shift);
+            if (Metrics.get().isQuiet()) {
+                return;
             }
             
             System.out.println("\n[SUCCESS] File encrypted successfully!");
@@ -215,15 +382,13 @@ public class CaesarCipherAdvanced {
     
     /**
      * Decrypts a file using Caesar cipher
+     * Streams the raw bytes, so line endings and non-letter bytes are preserved exactly
      */
     public static void decryptFile(String inputFile, String outputFile, int shift) {
-        try (BufferedReader reader = new BufferedReader(new FileReader(inputFile));
-             BufferedWriter writer = new BufferedWriter(new FileWriter(outputFile))) {
-            
-            String line;
-            while ((line = reader.readLine()) != null) {
-                writer.write(decrypt(line, shift));
-                writer.newLine();
+        try {
+            FileCipher.decrypt(Paths.get(inputFile), Paths.get(outputFile), shift);
+            if (Metrics.get().isQuiet()) {
+                return;
             }
             
             System.out.println("\n[SUCCESS] File decrypted successfully!");
@@ -266,7 +431,7 @@ public class CaesarCipherAdvanced {
         
         channel.sendMessage(encryptedMsg);
         
-        Message receivedMsg = channel.receiveLatestMessage();
+        Message receivedMsg = channel.receive(bob.name);
         String decryptedMsg = bob.receiveAndDecrypt(receivedMsg);
         System.out.println("\n[Bob] Received and Decrypted: " + decryptedMsg);
         
@@ -327,6 +492,8 @@ public class CaesarCipherAdvanced {
         // Decrypt the file
         decryptFile("encrypted_message.txt", "decrypted_message.txt", sharedKey);
         
+        channel.close();
+        
         // Security Summary
         System.out.println("\n╔════════════════════════════════════════════════════════════╗");
         System.out.println("║ SECURITY SUMMARY                                           ║");
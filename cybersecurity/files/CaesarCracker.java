@@ -0,0 +1,277 @@
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Statistical key recovery for Caesar ciphertexts
+ * Builds one letter histogram and scores all 26 shifts against English
+ * letter frequencies with the chi-squared statistic. That costs O(n + 26*26)
+ * and allocates no candidate plaintexts. Only the winning shift is ever
+ * decrypted, and only on request.
+ *
+ * @author Cybersecurity Project
+ * @version 1.0
+ */
+public final class CaesarCracker {
+
+    /** Relative frequencies of A-Z in English text */
+    static final double[] ENGLISH_FREQUENCIES = {
+        0.08167, 0.01492, 0.02782, 0.04253, 0.12702, 0.02228, 0.02015, // A-G
+        0.06094, 0.06966, 0.00153, 0.00772, 0.04025, 0.02406, 0.06749, // H-N
+        0.07507, 0.01929, 0.00095, 0.05987, 0.06327, 0.09056, 0.02758, // O-U
+        0.00978, 0.02360, 0.00150, 0.01974, 0.00074                    // V-Z
+    };
+
+    static final double FREQUENCY_SUM;
+    /** 1 / expected frequency of ciphertext letter c under each shift, indexed [shift][c] */
+    static final double[][] INVERSE_FREQUENCIES = new double[26][26];
+
+    static {
+        double sum = 0;
+        for (double frequency : ENGLISH_FREQUENCIES) {
+            sum += frequency;
+        }
+        FREQUENCY_SUM = sum;
+        for (int shift = 0; shift < 26; shift++) {
+            for (int c = 0; c < 26; c++) {
+                INVERSE_FREQUENCIES[shift][c] = 1.0 / ENGLISH_FREQUENCIES[(c - shift + 26) % 26];
+            }
+        }
+    }
+
+    private static final Comparator<Candidate> BY_SCORE =
+        Comparator.comparingDouble((Candidate c) -> c.chiSquared).thenComparingInt(c -> c.shift);
+
+    private CaesarCracker() {
+    }
+
+    /**
+     * Recovers the shift of a ciphertext from all of its letters
+     * @param ciphertext The encrypted message to crack
+     * @return All 26 shifts, most likely first
+     */
+    public static Result crack(CharSequence ciphertext) {
+        return crack(LetterHistogram.of(ciphertext));
+    }
+
+    /**
+     * Recovers the shift from a prefix of the ciphertext
+     * Stops counting once sampleLetters letters have been seen, which is
+     * plenty for large ciphertexts (a few thousand letters is almost always conclusive).
+     * @param ciphertext The encrypted message to crack
+     * @param sampleLetters Maximum number of letters to look at
+     * @return All 26 shifts, most likely first
+     */
+    public static Result crack(CharSequence ciphertext, int sampleLetters) {
+        LetterHistogram histogram = new LetterHistogram();
+        histogram.addPrefix(ciphertext, sampleLetters);
+        return crack(histogram);
+    }
+
+    /**
+     * Ranks the 26 shifts for an already counted histogram
+     * @param histogram Letter counts of the ciphertext
+     * @return All 26 shifts, most likely first
+     */
+    public static Result crack(LetterHistogram histogram) {
+        long[] counts = new long[26];
+        for (int i = 0; i < 26; i++) {
+            counts[i] = histogram.count(i);
+        }
+        return crack(counts);
+    }
+
+    /**
+     * Ranks the 26 shifts for raw letter counts
+     * @param counts Occurrences of A-Z in the ciphertext
+     * @return All 26 shifts, most likely first
+     */
+    public static Result crack(long[] counts) {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+
+        double[] scores = new double[26];
+        score(counts, total, scores);
+
+        double[] confidences = new double[26];
+        confidences(scores, confidences);
+        Candidate[] candidates = new Candidate[26];
+        for (int shift = 0; shift < 26; shift++) {
+            candidates[shift] = new Candidate(shift, scores[shift], confidences[shift]);
+        }
+
+        Arrays.sort(candidates, BY_SCORE);
+        return new Result(candidates, total);
+    }
+
+    /**
+     * Scores all 26 shifts into a caller-owned array without allocating
+     * @param counts Occurrences of A-Z in the ciphertext
+     * @param total Sum of counts
+     * @param scores Array of 26 slots receiving the chi-squared score per shift
+     * @return The shift with the lowest score
+     */
+    public static int score(long[] counts, long total, double[] scores) {
+        int best = 0;
+        for (int shift = 0; shift < 26; shift++) {
+            scores[shift] = chiSquared(counts, total, shift);
+            if (scores[shift] < scores[best]) {
+                best = shift;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Confidence of one shift given the scores of all 26
+     * Chi-squared is roughly -2 ln(likelihood), so exp(-chi/2) is a relative
+     * likelihood and the confidence is that shift's share of the total.
+     * @param scores The 26 chi-squared scores from score()
+     * @param shift The shift to rate
+     * @return Confidence between 0.0 and 1.0
+     */
+    public static double confidence(double[] scores, int shift) {
+        double min = Double.MAX_VALUE;
+        for (double score : scores) {
+            min = Math.min(min, score);
+        }
+        double sum = 0;
+        for (double score : scores) {
+            sum += Math.exp(-(score - min) / 2);
+        }
+        return Math.exp(-(scores[shift] - min) / 2) / sum;
+    }
+
+    /**
+     * Confidences of all 26 shifts at once, with one exp per shift
+     * @param scores The 26 chi-squared scores from score()
+     * @param confidences Array of 26 slots receiving each shift's confidence
+     */
+    public static void confidences(double[] scores, double[] confidences) {
+        double min = Double.MAX_VALUE;
+        for (double score : scores) {
+            min = Math.min(min, score);
+        }
+        double sum = 0;
+        for (int shift = 0; shift < 26; shift++) {
+            confidences[shift] = Math.exp(-(scores[shift] - min) / 2);
+            sum += confidences[shift];
+        }
+        for (int shift = 0; shift < 26; shift++) {
+            confidences[shift] /= sum;
+        }
+    }
+
+    /**
+     * Chi-squared distance between observed ciphertext counts and English
+     * shifted by the given key; lower means more English-like
+     * @param counts Occurrences of A-Z in the ciphertext
+     * @param total Sum of counts
+     * @param shift The candidate encryption shift (0-25)
+     * @return The chi-squared statistic, 0 for an empty histogram
+     */
+    public static double chiSquared(long[] counts, long total, int shift) {
+        if (total == 0) {
+            return 0.0;
+        }
+        // sum((O - N*p)^2 / (N*p)) expanded to sum(O^2 / p) / N - 2N + N*sum(p)
+        double[] inverse = INVERSE_FREQUENCIES[shift];
+        double sum = 0;
+        for (int c = 0; c < 26; c++) {
+            double observed = counts[c];
+            sum += observed * observed * inverse[c];
+        }
+        return sum / total - 2.0 * total + total * FREQUENCY_SUM;
+    }
+
+    /**
+     * One candidate key with its score
+     */
+    public static final class Candidate {
+        final int shift;
+        final double chiSquared;
+        final double confidence;
+
+        Candidate(int shift, double chiSquared, double confidence) {
+            this.shift = shift;
+            this.chiSquared = chiSquared;
+            this.confidence = confidence;
+        }
+
+        /**
+         * @return The encryption shift (0-25); decrypt with the same value
+         */
+        public int shift() {
+            return shift;
+        }
+
+        /**
+         * @return Chi-squared distance from English, lower is better
+         */
+        public double chiSquared() {
+            return chiSquared;
+        }
+
+        /**
+         * @return Share of the total likelihood held by this shift, 0.0-1.0
+         */
+        public double confidence() {
+            return confidence;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Shift %2d: chi2=%.2f confidence=%.2f%%", shift, chiSquared, confidence * 100);
+        }
+    }
+
+    /**
+     * The 26 candidates of one ciphertext, ranked best first
+     */
+    public static final class Result {
+        private final Candidate[] ranked;
+        private final long letters;
+
+        Result(Candidate[] ranked, long letters) {
+            this.ranked = ranked;
+            this.letters = letters;
+        }
+
+        /**
+         * @return The most likely candidate
+         */
+        public Candidate best() {
+            return ranked[0];
+        }
+
+        /**
+         * @param rank 0 for the best candidate through 25 for the worst
+         * @return The candidate at that rank
+         */
+        public Candidate candidate(int rank) {
+            return ranked[rank];
+        }
+
+        /**
+         * @return Number of letters the ranking is based on
+         */
+        public long letters() {
+            return letters;
+        }
+
+        /**
+         * Decrypts a ciphertext with the most likely shift
+         * @param ciphertext The encrypted message
+         * @return The recovered plaintext
+         */
+        public String decrypt(String ciphertext) {
+            return CaesarKernel.encrypt(ciphertext, -best().shift);
+        }
+
+        @Override
+        public String toString() {
+            return "Result[best=" + best() + ", letters=" + letters + "]";
+        }
+    }
+}
@@ -0,0 +1,116 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Caesar shift behind the CipherEngine interface (ROT13 is shift 13)
+ * All 26 engines are created up front and shared. The transforms go
+ * straight to CaesarKernel, so they keep its table lookups and word-at-a-time path.
+ *
+ * @author Cybersecurity Project
+ * @version 1.0
+ */
+public final class CaesarEngine implements CipherEngine {
+
+    private static final CaesarEngine[] ENGINES = new CaesarEngine[26];
+
+    static {
+        for (int shift = 0; shift < 26; shift++) {
+            ENGINES[shift] = new CaesarEngine(shift);
+        }
+    }
+
+    private final int shift;
+    private final Transform encryptor;
+    private final Transform decryptor;
+
+    private CaesarEngine(int shift) {
+        this.shift = shift;
+        this.encryptor = new ShiftTransform(shift);
+        this.decryptor = new ShiftTransform((26 - shift) % 26);
+    }
+
+    /**
+     * @param shift Any int; normalized to 0-25
+     * @return The shared engine for that shift
+     */
+    public static CaesarEngine of(int shift) {
+        return ENGINES[CaesarKernel.normalizeShift(shift)];
+    }
+
+    /**
+     * @return The normalized shift (0-25)
+     */
+    public int shift() {
+        return shift;
+    }
+
+    @Override
+    public String name() {
+        return "CAESAR-" + shift;
+    }
+
+    @Override
+    public Transform encryptor() {
+        return encryptor;
+    }
+
+    @Override
+    public Transform decryptor() {
+        return decryptor;
+    }
+
+    @Override
+    public String encrypt(String plaintext) {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        String ciphertext = CaesarKernel.encrypt(plaintext, shift);
+        if (Metrics.ENABLED) {
+            Metrics.get().recordEncrypt(plaintext.length(), System.nanoTime() - start);
+        }
+        return ciphertext;
+    }
+
+    @Override
+    public String decrypt(String ciphertext) {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        String plaintext = CaesarKernel.encrypt(ciphertext, -shift);
+        if (Metrics.ENABLED) {
+            Metrics.get().recordDecrypt(ciphertext.length(), System.nanoTime() - start);
+        }
+        return plaintext;
+    }
+
+    @Override
+    public String toString() {
+        return name();
+    }
+
+    /**
+     * Fixed shift in one direction
+     */
+    private static final class ShiftTransform implements Transform {
+        private final int shift;
+
+        ShiftTransform(int shift) {
+            this.shift = shift;
+        }
+
+        @Override
+        public void apply(byte[] data, int offset, int length) {
+            CaesarKernel.transform(data, offset, length, shift);
+        }
+
+        @Override
+        public void apply(char[] data, int offset, int length) {
+            CaesarKernel.transform(data, offset, length, shift);
+        }
+
+        @Override
+        public void apply(ByteBuffer buffer, int offset, int length) {
+            CaesarKernel.transform(buffer, offset, length, shift);
+        }
+
+        @Override
+        public boolean isStateless() {
+            return true;
+        }
+    }
+}
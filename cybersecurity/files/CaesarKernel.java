@@ -0,0 +1,234 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.util.Objects;
+
+/**
+ * Table-driven Caesar cipher kernel
+ * Every shift has a precomputed 256-entry substitution table, built once,
+ * so the in-place transforms below do one lookup per character and allocate nothing.
+ *
+ * Only the ASCII letters A-Z and a-z are shifted. Every other character,
+ * including accented letters such as 'É', passes through unchanged.
+ * Bytes 0x80-0xFF are never touched, so UTF-8 and Latin-1 text can be
+ * transformed as raw bytes without decoding it first.
+ *
+ * Byte ranges of 16 bytes or more are processed eight bytes at a time
+ * inside a long ("SIMD within a register"), with the tail and the final
+ * partial word going through the lookup tables. Both paths produce
+ * identical output; run with -Dcaesar.swar=false to force the scalar path.
+ *
+ * @author Cybersecurity Project
+ * @version 1.0
+ */
+public final class CaesarKernel {
+
+    private static final byte[][] BYTE_TABLES = new byte[26][256];
+    private static final char[][] CHAR_TABLES = new char[26][256];
+
+    private static final boolean SWAR_ENABLED =
+        Boolean.parseBoolean(System.getProperty("caesar.swar", "true"));
+    private static final int SWAR_THRESHOLD = 16;
+
+    private static final VarHandle LONG_ARRAY_VIEW =
+        MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final VarHandle LONG_BUFFER_VIEW =
+        MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    // Per-byte-lane constants for the word-at-a-time path
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    private static final long LOW_SEVEN = 0x7F7F7F7F7F7F7F7FL;
+    private static final long UPPER_GE = ONES * (0x80 - 'A');
+    private static final long UPPER_GT = ONES * (0x7F - 'Z');
+    private static final long LOWER_GE = ONES * (0x80 - 'a');
+    private static final long LOWER_GT = ONES * (0x7F - 'z');
+
+    static {
+        for (int shift = 0; shift < 26; shift++) {
+            for (int c = 0; c < 256; c++) {
+                int mapped = c;
+                if (c >= 'A' && c <= 'Z') {
+                    mapped = (c - 'A' + shift) % 26 + 'A';
+                } else if (c >= 'a' && c <= 'z') {
+                    mapped = (c - 'a' + shift) % 26 + 'a';
+                }
+                BYTE_TABLES[shift][c] = (byte) mapped;
+                CHAR_TABLES[shift][c] = (char) mapped;
+            }
+        }
+    }
+
+    private CaesarKernel() {
+    }
+
+    /**
+     * Normalizes the shift value to be within 0-25 range
+     * @param shift The shift value to normalize
+     * @return Normalized shift value
+     */
+    public static int normalizeShift(int shift) {
+        shift = shift % 26;
+        if (shift < 0) {
+            shift += 26;
+        }
+        return shift;
+    }
+
+    /**
+     * Shared substitution table for one shift; callers must not modify it
+     * @param shift Normalized shift (0-25)
+     * @return 256-entry byte table
+     */
+    static byte[] byteTable(int shift) {
+        return BYTE_TABLES[shift];
+    }
+
+    /**
+     * Shared substitution table for one shift; callers must not modify it
+     * @param shift Normalized shift (0-25)
+     * @return 256-entry char table covering U+0000-U+00FF
+     */
+    static char[] charTable(int shift) {
+        return CHAR_TABLES[shift];
+    }
+
+    /**
+     * Encrypts a String, allocating only the working array and the result
+     * @param plaintext The original message to encrypt
+     * @param shift The number of positions to shift (any int, normalized internally)
+     * @return The encrypted message
+     */
+    public static String encrypt(String plaintext, int shift) {
+        char[] chars = plaintext.toCharArray();
+        transform(chars, 0, chars.length, shift);
+        return new String(chars);
+    }
+
+    /**
+     * Shifts the letters of a byte range in place
+     * @param data The bytes to transform
+     * @param offset Index of the first byte
+     * @param length Number of bytes to transform
+     * @param shift The number of positions to shift (any int, normalized internally)
+     */
+    public static void transform(byte[] data, int offset, int length, int shift) {
+        Objects.checkFromIndexSize(offset, length, data.length);
+        shift = normalizeShift(shift);
+        byte[] table = BYTE_TABLES[shift];
+        int i = offset;
+        int end = offset + length;
+        if (SWAR_ENABLED && length >= SWAR_THRESHOLD) {
+            long shifts = ONES * shift;
+            for (int wordEnd = end - 7; i < wordEnd; i += 8) {
+                long word = (long) LONG_ARRAY_VIEW.get(data, i);
+                LONG_ARRAY_VIEW.set(data, i, shiftLetters(word, shifts));
+            }
+        }
+        for (; i < end; i++) {
+            data[i] = table[data[i] & 0xFF];
+        }
+    }
+
+    /**
+     * Shifts the letters of a char range in place
+     * @param data The characters to transform
+     * @param offset Index of the first character
+     * @param length Number of characters to transform
+     * @param shift The number of positions to shift (any int, normalized internally)
+     */
+    public static void transform(char[] data, int offset, int length, int shift) {
+        Objects.checkFromIndexSize(offset, length, data.length);
+        char[] table = CHAR_TABLES[normalizeShift(shift)];
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            char c = data[i];
+            if (c < 256) {
+                data[i] = table[c];
+            }
+        }
+    }
+
+    /**
+     * Shifts the letters of a buffer region in place
+     * Uses absolute indexes; the buffer's position and limit are left untouched.
+     * @param buffer The buffer to transform (heap or direct)
+     * @param offset Absolute index of the first byte
+     * @param length Number of bytes to transform
+     * @param shift The number of positions to shift (any int, normalized internally)
+     */
+    public static void transform(ByteBuffer buffer, int offset, int length, int shift) {
+        // Checked against the buffer, not the backing array, which may extend past a slice
+        Objects.checkFromIndexSize(offset, length, buffer.capacity());
+        if (buffer.hasArray() && !buffer.isReadOnly()) {
+            transform(buffer.array(), buffer.arrayOffset() + offset, length, shift);
+            return;
+        }
+        shift = normalizeShift(shift);
+        byte[] table = BYTE_TABLES[shift];
+        int i = offset;
+        int end = offset + length;
+        if (SWAR_ENABLED && length >= SWAR_THRESHOLD && buffer.isDirect()) {
+            long shifts = ONES * shift;
+            for (int wordEnd = end - 7; i < wordEnd; i += 8) {
+                long word = (long) LONG_BUFFER_VIEW.get(buffer, i);
+                LONG_BUFFER_VIEW.set(buffer, i, shiftLetters(word, shifts));
+            }
+        }
+        for (; i < end; i++) {
+            buffer.put(i, table[buffer.get(i) & 0xFF]);
+        }
+    }
+
+    /**
+     * Shifts the letters of a buffer region in place
+     * Uses absolute indexes; the buffer's position and limit are left untouched.
+     * @param buffer The buffer to transform (heap or direct)
+     * @param offset Absolute index of the first character
+     * @param length Number of characters to transform
+     * @param shift The number of positions to shift (any int, normalized internally)
+     */
+    public static void transform(CharBuffer buffer, int offset, int length, int shift) {
+        // Checked against the buffer, not the backing array, which may extend past a slice
+        Objects.checkFromIndexSize(offset, length, buffer.capacity());
+        if (buffer.hasArray() && !buffer.isReadOnly()) {
+            transform(buffer.array(), buffer.arrayOffset() + offset, length, shift);
+            return;
+        }
+        char[] table = CHAR_TABLES[normalizeShift(shift)];
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            char c = buffer.get(i);
+            if (c < 256) {
+                buffer.put(i, table[c]);
+            }
+        }
+    }
+
+    /**
+     * Shifts the ASCII letters held in the eight byte lanes of a word
+     * Every intermediate lane value stays below 0x100, so no carry or
+     * borrow ever crosses into a neighbouring lane.
+     * @param word Eight bytes of input
+     * @param shifts The normalized shift replicated into every lane
+     * @return The word with letter lanes shifted and all other lanes unchanged
+     */
+    private static long shiftLetters(long word, long shifts) {
+        long low = word & LOW_SEVEN;
+        long ascii = ~word & HIGH_BITS;
+        long upper = (low + UPPER_GE) & ~(low + UPPER_GT) & ascii;
+        long lower = (low + LOWER_GE) & ~(low + LOWER_GT) & ascii;
+
+        // Add the shift to letter lanes only (at most 'z' + 25 = 0x93)
+        long letterLanes = ((upper | lower) >>> 7) * 0xFF;
+        long shifted = word + (shifts & letterLanes);
+
+        // Lanes that ran past 'Z' or 'z' wrap back by 26
+        long shiftedLow = shifted & LOW_SEVEN;
+        long wrapUpper = (shiftedLow + UPPER_GT) & upper;
+        long wrapLower = (shifted | (shiftedLow + LOWER_GT)) & lower;
+        return shifted - (((wrapUpper | wrapLower) >>> 7) * 26);
+    }
+}
@@ -0,0 +1,277 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+/**
+ * Command-line front end for scripts and shell pipelines
+ *
+ *   encrypt|decrypt (--shift N | --cipher NAME) [--in FILE] [--out FILE] [--workers N] [--stats]
+ *   crack   [--in FILE] [--out FILE] [--workers N] [--batch N] [--top K] [--stats]
+ *   analyze [--in FILE] [--stats]
+ *
+ * Without --in or --out, stdin and stdout are used. encrypt and decrypt
+ * stream raw bytes through a 1 MiB direct buffer. With --workers > 1 and
+ * both files given, regions are processed in parallel. crack reads one
+ * ciphertext per line and writes the BatchCracker TSV. analyze prints the
+ * letter histogram and the likely Caesar shift as JSON. --stats writes
+ * timings to stderr, so stdout stays clean for the next command.
+ *
+ * Exit codes: 0 success, 1 I/O error, 2 usage error.
+ * No reflection, and no class is loaded by name, so the CLI works
+ * unchanged with an AppCDS archive or as a native image.
+ *
+ * @author Cybersecurity Project
+ * @version 1.0
+ */
+public final class CipherCli {
+
+    private static final int IO_BUFFER = 1 << 20;
+
+    private final PrintStream err;
+    private String command;
+    private CipherEngine cipher;
+    private Path in;
+    private Path out;
+    private int workers = 1;
+    private int batch = BatchCracker.DEFAULT_BATCH_SIZE;
+    private int top = 1;
+    private boolean stats;
+
+    private CipherCli(PrintStream err) {
+        this.err = err;
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args, System.err));
+    }
+
+    /**
+     * Runs one command without exiting the JVM
+     * @param args Command and options
+     * @param err Where usage and error messages go
+     * @return The exit code
+     */
+    static int run(String[] args, PrintStream err) {
+        Metrics.get().setQuiet(true);
+        CipherCli cli = new CipherCli(err);
+        try {
+            cli.parse(args);
+        } catch (IllegalArgumentException e) {
+            err.println("Error: " + e.getMessage());
+            usage(err);
+            return 2;
+        }
+        try {
+            switch (cli.command) {
+                case "encrypt":
+                case "decrypt":
+                    cli.transform();
+                    break;
+                case "crack":
+                    cli.crack();
+                    break;
+                default:
+                    cli.analyze();
+                    break;
+            }
+            return 0;
+        } catch (IOException | UncheckedIOException e) {
+            err.println("Error: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    private void parse(String[] args) {
+        if (args.length == 0) {
+            throw new IllegalArgumentException("missing command");
+        }
+        command = args[0].toLowerCase(Locale.ROOT);
+        if (!command.equals("encrypt") && !command.equals("decrypt")
+                && !command.equals("crack") && !command.equals("analyze")) {
+            throw new IllegalArgumentException("unknown command: " + args[0]);
+        }
+        for (int i = 1; i < args.length; i++) {
+            String option = args[i];
+            if (option.equals("--stats")) {
+                stats = true;
+                continue;
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("missing value for " + option);
+            }
+            String value = args[++i];
+            switch (option) {
+                case "--shift":
+                    cipher = CipherEngines.caesar(number(option, value));
+                    break;
+                case "--cipher":
+                    cipher = CipherEngines.key(value);
+                    break;
+                case "--in":
+                    in = Paths.get(value);
+                    break;
+                case "--out":
+                    out = Paths.get(value);
+                    break;
+                case "--workers":
+                    workers = positive(option, value);
+                    break;
+                case "--batch":
+                    batch = positive(option, value);
+                    break;
+                case "--top":
+                    top = positive(option, value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown option: " + option);
+            }
+        }
+        if ((command.equals("encrypt") || command.equals("decrypt")) && cipher == null) {
+            throw new IllegalArgumentException(command + " needs --shift or --cipher");
+        }
+        if (top > 26) {
+            throw new IllegalArgumentException("--top must be between 1 and 26");
+        }
+    }
+
+    private void transform() throws IOException {
+        boolean encrypt = command.equals("encrypt");
+        CipherEngine.Transform transform = encrypt ? cipher.encryptor() : cipher.decryptor();
+        long start = System.nanoTime();
+        long bytes;
+        if (in != null && out != null) {
+            bytes = workers > 1
+                ? FileCipher.transformParallel(in, out, transform, FileCipher.DEFAULT_REGION_SIZE, workers)
+                : FileCipher.transform(in, out, transform, IO_BUFFER);
+        } else {
+            FileChannel source = openInput();
+            FileChannel target = openOutput();
+            try {
+                bytes = FileCipher.transform(source, target, transform, ByteBuffer.allocateDirect(IO_BUFFER));
+            } finally {
+                closeUnlessStandard(source, in);
+                closeUnlessStandard(target, out);
+            }
+        }
+        if (stats) {
+            long nanos = System.nanoTime() - start;
+            err.printf("[STATS] %s %d bytes with %s in %.1f ms (%.1f MB/s)%n", command, bytes, cipher.name(),
+                nanos / 1e6, nanos == 0 ? 0.0 : bytes * 1e3 / nanos);
+        }
+    }
+
+    private void crack() throws IOException {
+        BatchCracker cracker = new BatchCracker(workers, batch, workers * 4, top);
+        BatchCracker.Stats result;
+        BufferedReader reader = new BufferedReader(new InputStreamReader(
+            in == null ? new FileInputStream(FileDescriptor.in) : Files.newInputStream(in),
+            StandardCharsets.UTF_8), IO_BUFFER);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(
+            out == null ? new FileOutputStream(FileDescriptor.out) : Files.newOutputStream(out),
+            StandardCharsets.UTF_8), IO_BUFFER);
+        try {
+            result = cracker.crack(reader.lines().iterator(), BatchCracker.writerSink(writer));
+            writer.flush();
+        } finally {
+            closeUnlessStandard(reader, in);
+            closeUnlessStandard(writer, out);
+        }
+        if (stats) {
+            err.println("[STATS] crack " + result);
+        }
+    }
+
+    private void analyze() throws IOException {
+        long start = System.nanoTime();
+        LetterHistogram histogram;
+        FileChannel source = openInput();
+        try {
+            histogram = LetterHistogram.of(source);
+        } finally {
+            closeUnlessStandard(source, in);
+        }
+        CaesarCracker.Candidate best = CaesarCracker.crack(histogram).best();
+
+        StringBuilder json = new StringBuilder(1024);
+        json.append("{\"letters\":").append(histogram.total()).append(",\"counts\":{");
+        for (int i = 0; i < 26; i++) {
+            json.append(i == 0 ? "" : ",").append('"').append((char) ('A' + i)).append("\":")
+                .append(histogram.count(i));
+        }
+        json.append("},\"frequencies\":{");
+        for (int i = 0; i < 26; i++) {
+            json.append(i == 0 ? "" : ",").append('"').append((char) ('A' + i)).append("\":")
+                .append(String.format(Locale.ROOT, "%.6f", histogram.frequency(i)));
+        }
+        json.append("},\"likelyShift\":").append(best.shift())
+            .append(",\"confidence\":").append(String.format(Locale.ROOT, "%.6f", best.confidence()))
+            .append('}');
+        System.out.println(json);
+
+        if (stats) {
+            err.printf("[STATS] analyze %d letters in %.1f ms%n", histogram.total(),
+                (System.nanoTime() - start) / 1e6);
+        }
+    }
+
+    private FileChannel openInput() throws IOException {
+        return in == null ? new FileInputStream(FileDescriptor.in).getChannel()
+            : FileChannel.open(in, StandardOpenOption.READ);
+    }
+
+    private FileChannel openOutput() throws IOException {
+        return out == null ? new FileOutputStream(FileDescriptor.out).getChannel()
+            : FileChannel.open(out, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /**
+     * Closes what the CLI opened itself; stdin and stdout stay open for the caller
+     */
+    private static void closeUnlessStandard(Closeable stream, Path file) throws IOException {
+        if (file != null) {
+            stream.close();
+        }
+    }
+
+    private static int number(String option, String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(option + " expects a number: " + value);
+        }
+    }
+
+    private static int positive(String option, String value) {
+        int n = number(option, value);
+        if (n <= 0) {
+            throw new IllegalArgumentException(option + " must be positive: " + value);
+        }
+        return n;
+    }
+
+    private static void usage(PrintStream err) {
+        err.println("Usage: java CipherCli <command> [options]");
+        err.println("  encrypt|decrypt (--shift N | --cipher NAME) [--in FILE] [--out FILE] [--workers N] [--stats]");
+        err.println("  crack   [--in FILE] [--out FILE] [--workers N] [--batch N] [--top K] [--stats]");
+        err.println("  analyze [--in FILE] [--stats]");
+        err.println("Cipher names: CAESAR-n, ROT13, ATBASH, AFFINE-a-b, VIGENERE-KEY");
+    }
+}
@@ -0,0 +1,108 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Pluggable classical cipher
+ * An engine is one cipher bound to one key. It precomputes its tables
+ * when it is created, and after that it is immutable and safe to share
+ * between threads. Obtain engines through CipherEngines so that
+ * equal keys share one instance.
+ *
+ * The actual work happens in Transforms: bulk, in-place and allocation-free.
+ * Only ASCII letters are changed; every other byte or char passes through.
+ *
+ * @author Cybersecurity Project
+ * @version 1.0
+ */
+public interface CipherEngine {
+
+    /**
+     * @return Cipher and key in the form CipherEngines.forName() accepts, e.g. "CAESAR-13"
+     */
+    String name();
+
+    /**
+     * Returns a transform that encrypts from the start of a message
+     * Stateless engines return one shared instance. Polyalphabetic engines
+     * return a fresh transform that tracks the key position, so use one per message or stream.
+     * @return An encrypting transform
+     */
+    Transform encryptor();
+
+    /**
+     * Returns a transform that decrypts from the start of a message
+     * @return A decrypting transform
+     * @see #encryptor()
+     */
+    Transform decryptor();
+
+    /**
+     * Encrypts a whole String
+     * @param plaintext The original message to encrypt
+     * @return The encrypted message
+     */
+    default String encrypt(String plaintext) {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        char[] chars = plaintext.toCharArray();
+        encryptor().apply(chars, 0, chars.length);
+        String ciphertext = new String(chars);
+        if (Metrics.ENABLED) {
+            Metrics.get().recordEncrypt(chars.length, System.nanoTime() - start);
+        }
+        return ciphertext;
+    }
+
+    /**
+     * Decrypts a whole String
+     * @param ciphertext The encrypted message to decrypt
+     * @return The decrypted message
+     */
+    default String decrypt(String ciphertext) {
+        long start = Metrics.ENABLED ? System.nanoTime() : 0;
+        char[] chars = ciphertext.toCharArray();
+        decryptor().apply(chars, 0, chars.length);
+        String plaintext = new String(chars);
+        if (Metrics.ENABLED) {
+            Metrics.get().recordDecrypt(chars.length, System.nanoTime() - start);
+        }
+        return plaintext;
+    }
+
+    /**
+     * In-place bulk transformation in one direction
+     * Consecutive calls continue where the previous call stopped, so a
+     * stream can be fed chunk by chunk.
+     */
+    interface Transform {
+
+        /**
+         * Transforms a byte range in place (ASCII-compatible encodings)
+         * @param data The bytes to transform
+         * @param offset Index of the first byte
+         * @param length Number of bytes
+         */
+        void apply(byte[] data, int offset, int length);
+
+        /**
+         * Transforms a char range in place
+         * @param data The characters to transform
+         * @param offset Index of the first character
+         * @param length Number of characters
+         */
+        void apply(char[] data, int offset, int length);
+
+        /**
+         * Transforms a buffer region in place using absolute indexes
+         * The buffer's position and limit are left untouched.
+         * @param buffer The buffer to transform (heap or direct)
+         * @param offset Absolute index of the first byte
+         * @param length Number of bytes
+         */
+        void apply(ByteBuffer buffer, int offset, int length);
+
+        /**
+         * @return True if every byte maps independently of its position,
+         *         so regions of a file may be transformed in parallel
+         */
+        boolean isStateless();
+    }
+}
@@ -0,0 +1,166 @@
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Factory and cache for CipherEngine instances
+ * Engines are immutable, so one instance per key is shared by every thread.
+ * Caesar and affine keys are few enough to be created up front. Vigenère
+ * engines are cached by key on first use, in a bounded LRU cache: forName()
+ * also resolves names read from the network and from log files, and those
+ * must not be able to grow the heap.
+ *
+ * Names are the ones CipherEngine.name() produces:
+ * CAESAR-n, ROT13, ATBASH, AFFINE-a-b, VIGENERE-KEY (case-insensitive),
+ * and SESSION for messages sealed by a KeyManager, whose key is never named.
+ *
+ * @author Cybersecurity Project
+ * @version 1.0
+ */
+public final class CipherEngines {
+
+    /** Name carried by messages sealed with a KeyManager session key */
+    public static final String SESSION = "SESSION";
+
+    private static final CipherEngine SESSION_ENGINE = new SessionMarker();
+
+    /** Vigenère engines kept for reuse; the least recently used key is dropped beyond this */
+    public static final int VIGENERE_CACHE_SIZE = 256;
+
+    @SuppressWarnings("serial")
+    private static final Map<String, VigenereEngine> VIGENERE_CACHE =
+        new LinkedHashMap<String, VigenereEngine>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, VigenereEngine> eldest) {
+                return size() > VIGENERE_CACHE_SIZE;
+            }
+        };
+
+    private CipherEngines() {
+    }
+
+    /**
+     * @param shift Any int; normalized to 0-25
+     * @return The shared Caesar engine
+     */
+    public static CipherEngine caesar(int shift) {
+        return CaesarEngine.of(shift);
+    }
+
+    /**
+     * @return The shared ROT13 engine (Caesar shift 13, its own inverse)
+     */
+    public static CipherEngine rot13() {
+        return CaesarEngine.of(13);
+    }
+
+    /**
+     * @return The shared Atbash engine
+     */
+    public static CipherEngine atbash() {
+        return AffineEngine.atbash();
+    }
+
+    /**
+     * @param a Multiplier coprime to 26
+     * @param b Offset
+     * @return The shared affine engine
+     */
+    public static CipherEngine affine(int a, int b) {
+        return AffineEngine.of(a, b);
+    }
+
+    /**
+     * @param key Letters A-Z in either case
+     * @return The cached Vigenère engine for that key
+     */
+    public static CipherEngine vigenere(String key) {
+        String upper = key.toUpperCase(Locale.ROOT);
+        synchronized (VIGENERE_CACHE) {
+            return VIGENERE_CACHE.computeIfAbsent(upper, VigenereEngine::new);
+        }
+    }
+
+    /**
+     * Stands in for the key of a session-sealed message
+     * Its transforms throw: such messages are opened with KeyManager.open,
+     * which looks the key up by epoch.
+     * @return The shared SESSION marker
+     */
+    public static CipherEngine session() {
+        return SESSION_ENGINE;
+    }
+
+    /**
+     * Resolves an engine name back to the shared engine
+     * @param name A name as produced by CipherEngine.name()
+     * @return The engine
+     * @throws IllegalArgumentException If the name is not recognised
+     */
+    public static CipherEngine forName(String name) {
+        String upper = name.trim().toUpperCase(Locale.ROOT);
+        try {
+            if (upper.equals("ROT13")) {
+                return rot13();
+            }
+            if (upper.equals(SESSION)) {
+                return session();
+            }
+            if (upper.equals("ATBASH")) {
+                return atbash();
+            }
+            if (upper.startsWith("CAESAR-")) {
+                return caesar(Integer.parseInt(upper.substring("CAESAR-".length())));
+            }
+            if (upper.startsWith("AFFINE-")) {
+                String[] parts = upper.substring("AFFINE-".length()).split("-");
+                if (parts.length == 2) {
+                    return affine(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]));
+                }
+            }
+            if (upper.startsWith("VIGENERE-")) {
+                return vigenere(upper.substring("VIGENERE-".length()));
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed cipher name: " + name, e);
+        }
+        throw new IllegalArgumentException("Unknown cipher: " + name);
+    }
+
+    /**
+     * Resolves a name given as a key, e.g. on the command line
+     * @param name A name as produced by CipherEngine.name()
+     * @return The engine
+     * @throws IllegalArgumentException If the name is not recognised or is the SESSION marker
+     */
+    public static CipherEngine key(String name) {
+        CipherEngine engine = forName(name);
+        if (engine == SESSION_ENGINE) {
+            throw new IllegalArgumentException(SESSION + " is not a key; session messages are opened by their KeyManager");
+        }
+        return engine;
+    }
+
+    private static final class SessionMarker implements CipherEngine {
+
+        @Override
+        public String name() {
+            return SESSION;
+        }
+
+        @Override
+        public Transform encryptor() {
+            throw new UnsupportedOperationException("Session messages are sealed with KeyManager.seal");
+        }
+
+        @Override
+        public Transform decryptor() {
+            throw new UnsupportedOperationException("Session messages are opened with KeyManager.open");
+        }
+
+        @Override
+        public String toString() {
+            return SESSION;
+        }
+    }
+}
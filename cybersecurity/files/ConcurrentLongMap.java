@@ -0,0 +1,204 @@
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+
+/**
+ * Concurrent hash map from primitive long keys to objects
+ * Keys are never boxed. The table is split into segments, each an
+ * open-addressing array guarded by a StampedLock. Lookups are optimistic
+ * reads that take no lock and allocate nothing, unless a writer on the
+ * same segment forces a retry under the read lock. Entries cannot be removed.
+ *
+ * @param <V> Value type; null values are not allowed
+ * @author Cybersecurity Project
+ * @version 1.0
+ */
+public final class ConcurrentLongMap<V> {
+
+    private static final int SEGMENT_BITS = 4;
+    private static final int SEGMENTS = 1 << SEGMENT_BITS;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    /**
+     * @param expectedSize Number of entries to size the table for
+     */
+    public ConcurrentLongMap(int expectedSize) {
+        int perSegment = Math.max(8, expectedSize / SEGMENTS * 2);
+        int capacity = Integer.highestOneBit(perSegment - 1) << 1;
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(capacity);
+        }
+    }
+
+    /**
+     * @param key The key
+     * @return The value, or null if absent
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        long hash = mix(key);
+        Segment segment = segments[(int) (hash >>> (64 - SEGMENT_BITS))];
+        long stamp = segment.tryOptimisticRead();
+        Object value = segment.find(key, hash);
+        if (!segment.validate(stamp)) {
+            stamp = segment.readLock();
+            try {
+                value = segment.find(key, hash);
+            } finally {
+                segment.unlockRead(stamp);
+            }
+        }
+        return (V) value;
+    }
+
+    /**
+     * Returns the value for a key, creating it under the segment lock if absent
+     * @param key The key
+     * @param factory Creates the value; must not return null
+     * @return The existing or new value
+     */
+    @SuppressWarnings("unchecked")
+    public V computeIfAbsent(long key, LongFunction<? extends V> factory) {
+        V existing = get(key);
+        if (existing != null) {
+            return existing;
+        }
+        long hash = mix(key);
+        Segment segment = segments[(int) (hash >>> (64 - SEGMENT_BITS))];
+        long stamp = segment.writeLock();
+        try {
+            Object value = segment.find(key, hash);
+            if (value == null) {
+                value = factory.apply(key);
+                if (value == null) {
+                    throw new NullPointerException("factory returned null for key " + key);
+                }
+                segment.insert(key, hash, value);
+            }
+            return (V) value;
+        } finally {
+            segment.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @return Number of entries
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            long stamp = segment.readLock();
+            try {
+                size += segment.size;
+            } finally {
+                segment.unlockRead(stamp);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Visits every value; each segment is read-locked while it is visited
+     * @param action Receives each value
+     */
+    @SuppressWarnings("unchecked")
+    public void forEachValue(Consumer<? super V> action) {
+        for (Segment segment : segments) {
+            Object[] snapshot;
+            long stamp = segment.readLock();
+            try {
+                snapshot = Arrays.copyOf(segment.values, segment.values.length);
+            } finally {
+                segment.unlockRead(stamp);
+            }
+            for (Object value : snapshot) {
+                if (value != null) {
+                    action.accept((V) value);
+                }
+            }
+        }
+    }
+
+    /**
+     * Spreads the key bits (the 64-bit finalizer of MurmurHash3)
+     */
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    /**
+     * One linear-probing table; an empty slot has a null value
+     */
+    @SuppressWarnings("serial")
+    private static final class Segment extends StampedLock {
+        private long[] keys;
+        private Object[] values;
+        private int size;
+
+        Segment(int capacity) {
+            keys = new long[capacity];
+            values = new Object[capacity];
+        }
+
+        /**
+         * Safe to call without the lock: it only indexes arrays it has read
+         * once, and the caller validates the stamp before trusting the result
+         */
+        Object find(long key, long hash) {
+            long[] k = keys;
+            Object[] v = values;
+            int mask = Math.min(k.length, v.length) - 1;
+            for (int i = (int) hash & mask, probes = 0; probes <= mask; i = (i + 1) & mask, probes++) {
+                Object value = v[i];
+                if (value == null) {
+                    return null;
+                }
+                if (k[i] == key) {
+                    return value;
+                }
+            }
+            return null;
+        }
+
+        void insert(long key, long hash, Object value) {
+            if ((size + 1) * 4 > keys.length * 3) {
+                resize();
+            }
+            int mask = keys.length - 1;
+            int i = (int) hash & mask;
+            while (values[i] != null) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            values[i] = value;
+            size++;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            Object[] oldValues = values;
+            long[] newKeys = new long[oldKeys.length * 2];
+            Object[] newValues = new Object[oldKeys.length * 2];
+            int mask = newKeys.length - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldValues[j] != null) {
+                    int i = (int) mix(oldKeys[j]) & mask;
+                    while (newValues[i] != null) {
+                        i = (i + 1) & mask;
+                    }
+                    newKeys[i] = oldKeys[j];
+                    newValues[i] = oldValues[j];
+                }
+            }
+            keys = newKeys;
+            values = newValues;
+        }
+    }
+}
@@ -0,0 +1,307 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Streaming file encryption over NIO channels for any CipherEngine
+ * Input is read in large chunks into one reused direct buffer, transformed
+ * in place and written straight to the output channel. Memory use is the
+ * chunk size no matter how big the file is, and the bytes are never decoded,
+ * so line endings (LF, CRLF, CR) and non-letter bytes come out exactly as they went in.
+ *
+ * Works for any ASCII-compatible encoding (UTF-8, ISO-8859-1, windows-1252).
+ *
+ * For stateless transforms (Caesar, affine) the parallel mode splits the
+ * file into fixed-size regions and transforms them on a fork-join pool with
+ * positional reads and writes. Its output is identical to the sequential mode.
+ * Polyalphabetic engines depend on the preceding letters, so they always run sequentially.
+ *
+ * @author Cybersecurity Project
+ * @version 1.0
+ */
+public final class FileCipher {
+
+    /** Default chunk size: 1 MiB */
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+    /** Default region size for the parallel mode: 4 MiB */
+    public static final int DEFAULT_REGION_SIZE = 4 << 20;
+
+    private FileCipher() {
+    }
+
+    /**
+     * Encrypts a file with the given shift
+     * @param input The file to read
+     * @param output The file to create or overwrite
+     * @param shift The number of positions to shift
+     * @return Number of bytes processed
+     * @throws IOException If either file cannot be read or written
+     */
+    public static long encrypt(Path input, Path output, int shift) throws IOException {
+        return encrypt(input, output, CaesarEngine.of(shift));
+    }
+
+    /**
+     * Decrypts a file with the given shift
+     * @param input The file to read
+     * @param output The file to create or overwrite
+     * @param shift The number of positions shifted during encryption
+     * @return Number of bytes processed
+     * @throws IOException If either file cannot be read or written
+     */
+    public static long decrypt(Path input, Path output, int shift) throws IOException {
+        return decrypt(input, output, CaesarEngine.of(shift));
+    }
+
+    /**
+     * Encrypts a file with any cipher engine
+     * @param input The file to read
+     * @param output The file to create or overwrite
+     * @param engine The cipher and key
+     * @return Number of bytes processed
+     * @throws IOException If either file cannot be read or written
+     */
+    public static long encrypt(Path input, Path output, CipherEngine engine) throws IOException {
+        return transform(input, output, engine.encryptor(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Decrypts a file with any cipher engine
+     * @param input The file to read
+     * @param output The file to create or overwrite
+     * @param engine The cipher and key used for encryption
+     * @return Number of bytes processed
+     * @throws IOException If either file cannot be read or written
+     */
+    public static long decrypt(Path input, Path output, CipherEngine engine) throws IOException {
+        return transform(input, output, engine.decryptor(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Transforms every letter of a file into another file
+     * @param input The file to read
+     * @param output The file to create or overwrite
+     * @param transform The transform to apply, fresh from an engine
+     * @param chunkSize Size of the reused I/O buffer in bytes
+     * @return Number of bytes processed
+     * @throws IOException If either file cannot be read or written
+     */
+    public static long transform(Path input, Path output, CipherEngine.Transform transform,
+                                 int chunkSize) throws IOException {
+        long start = System.nanoTime();
+        long bytes;
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE,
+                 StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            bytes = transform(in, out, transform, ByteBuffer.allocateDirect(chunkSize));
+        }
+        Metrics.get().recordFile(bytes, System.nanoTime() - start);
+        return bytes;
+    }
+
+    /**
+     * Transforms every letter read from one channel into another until end of stream
+     * Neither channel is closed.
+     * @param in The source channel
+     * @param out The destination channel
+     * @param transform The transform to apply, fresh from an engine
+     * @param buffer The working buffer, reused for every chunk
+     * @return Number of bytes processed
+     * @throws IOException If reading or writing fails
+     */
+    public static long transform(ReadableByteChannel in, WritableByteChannel out,
+                                 CipherEngine.Transform transform, ByteBuffer buffer) throws IOException {
+        long total = 0;
+        buffer.clear();
+        while (in.read(buffer) != -1 || buffer.position() > 0) {
+            buffer.flip();
+            transform.apply(buffer, 0, buffer.limit());
+            total += buffer.remaining();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            buffer.clear();
+        }
+        return total;
+    }
+
+    /**
+     * Encrypts a file on all available cores
+     * @param input The file to read
+     * @param output The file to create or overwrite
+     * @param shift The number of positions to shift
+     * @return Number of bytes processed
+     * @throws IOException If either file cannot be read or written
+     */
+    public static long encryptParallel(Path input, Path output, int shift) throws IOException {
+        return encryptParallel(input, output, CaesarEngine.of(shift));
+    }
+
+    /**
+     * Decrypts a file on all available cores
+     * @param input The file to read
+     * @param output The file to create or overwrite
+     * @param shift The number of positions shifted during encryption
+     * @return Number of bytes processed
+     * @throws IOException If either file cannot be read or written
+     */
+    public static long decryptParallel(Path input, Path output, int shift) throws IOException {
+        return decryptParallel(input, output, CaesarEngine.of(shift));
+    }
+
+    /**
+     * Encrypts a file on all available cores (sequentially for stateful engines)
+     * @param input The file to read
+     * @param output The file to create or overwrite
+     * @param engine The cipher and key
+     * @return Number of bytes processed
+     * @throws IOException If either file cannot be read or written
+     */
+    public static long encryptParallel(Path input, Path output, CipherEngine engine) throws IOException {
+        return transformParallel(input, output, engine.encryptor(), DEFAULT_REGION_SIZE,
+            Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Decrypts a file on all available cores (sequentially for stateful engines)
+     * @param input The file to read
+     * @param output The file to create or overwrite
+     * @param engine The cipher and key used for encryption
+     * @return Number of bytes processed
+     * @throws IOException If either file cannot be read or written
+     */
+    public static long decryptParallel(Path input, Path output, CipherEngine engine) throws IOException {
+        return transformParallel(input, output, engine.decryptor(), DEFAULT_REGION_SIZE,
+            Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Transforms every letter of a file into another file, one region per task
+     * Each worker thread reuses one direct buffer of regionSize bytes, so
+     * memory use is bounded by parallelism * regionSize. Stateful transforms
+     * fall back to the sequential path.
+     * @param input The file to read
+     * @param output The file to create or overwrite
+     * @param transform The transform to apply, fresh from an engine
+     * @param regionSize Bytes handled by one task
+     * @param parallelism Number of worker threads
+     * @return Number of bytes processed
+     * @throws IOException If either file cannot be read or written
+     */
+    public static long transformParallel(Path input, Path output, CipherEngine.Transform transform,
+                                         int regionSize, int parallelism) throws IOException {
+        if (regionSize <= 0 || parallelism <= 0) {
+            throw new IllegalArgumentException("regionSize and parallelism must be positive");
+        }
+        long start = System.nanoTime();
+        long bytes;
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE,
+                 StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = in.size();
+            long regions = (size + regionSize - 1) / regionSize;
+            if (regions <= 1 || parallelism == 1 || !transform.isStateless()) {
+                bytes = transform(in, out, transform, ByteBuffer.allocateDirect(regionSize));
+            } else {
+                bytes = transformRegions(in, out, size, transform, regionSize, parallelism);
+            }
+        }
+        Metrics.get().recordFile(bytes, System.nanoTime() - start);
+        return bytes;
+    }
+
+    /**
+     * Fans the regions of an already opened file pair out over a ForkJoinPool
+     */
+    private static long transformRegions(FileChannel in, FileChannel out, long size,
+                                         CipherEngine.Transform transform, int regionSize,
+                                         int parallelism) throws IOException {
+        long regions = (size + regionSize - 1) / regionSize;
+        ThreadLocal<ByteBuffer> buffers =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(regionSize));
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.invoke(new RegionTask(in, out, size, regionSize, transform, buffers, 0, regions));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Splits a range of regions in half until a single region is left,
+     * then transforms it with positional I/O
+     * The result is the number of bytes actually read and written, which is
+     * less than the snapshotted size if the input shrank in the meantime.
+     */
+    private static final class RegionTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient FileChannel in;
+        private final transient FileChannel out;
+        private final long size;
+        private final int regionSize;
+        private final transient CipherEngine.Transform transform;
+        private final transient ThreadLocal<ByteBuffer> buffers;
+        private final long from;
+        private final long to;
+
+        RegionTask(FileChannel in, FileChannel out, long size, int regionSize,
+                   CipherEngine.Transform transform, ThreadLocal<ByteBuffer> buffers, long from, long to) {
+            this.in = in;
+            this.out = out;
+            this.size = size;
+            this.regionSize = regionSize;
+            this.transform = transform;
+            this.buffers = buffers;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Long compute() {
+            if (to - from > 1) {
+                long mid = (from + to) >>> 1;
+                RegionTask left = new RegionTask(in, out, size, regionSize, transform, buffers, from, mid);
+                RegionTask right = new RegionTask(in, out, size, regionSize, transform, buffers, mid, to);
+                invokeAll(left, right);
+                return left.join() + right.join();
+            }
+            try {
+                return transformRegion(from * regionSize);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * @return Bytes transformed
+         */
+        private long transformRegion(long position) throws IOException {
+            ByteBuffer buffer = buffers.get();
+            buffer.clear();
+            buffer.limit((int) Math.min(regionSize, size - position));
+            while (buffer.hasRemaining()) {
+                if (in.read(buffer, position + buffer.position()) == -1) {
+                    break;
+                }
+            }
+            buffer.flip();
+            int length = buffer.limit();
+            transform.apply(buffer, 0, length);
+            while (buffer.hasRemaining()) {
+                out.write(buffer, position + buffer.position());
+            }
+            return length;
+        }
+    }
+}
@@ -0,0 +1,290 @@
+import java.security.SecureRandom;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Per-pair session keys with rotation
+ * Every registered user gets a dense int id. Every pair of users shares a
+ * session, stored in a ConcurrentLongMap under (smaller id << 32 | larger id),
+ * so looking up a key on the send path is one lock-free probe with no allocation.
+ *
+ * A session holds its current key and the last few retired keys, each tagged
+ * with an epoch. Messages carry the epoch they were sealed under. A message
+ * still in flight when the key rotates can be opened until its epoch falls out
+ * of the retained window.
+ *
+ * Key length 1 gives Caesar keys, which use the shared Caesar engines.
+ * Longer lengths give Vigenère keys. A session stores only the key letters;
+ * the engine, with its tables, is fetched from a bounded LRU cache when the
+ * key is used, so idle sessions hold no tables and busy ones share them.
+ *
+ * @author Cybersecurity Project
+ * @version 1.0
+ */
+public final class KeyManager implements AutoCloseable {
+
+    public static final int DEFAULT_KEY_LENGTH = 1;
+    public static final int DEFAULT_RETAINED_EPOCHS = 4;
+    public static final int DEFAULT_ENGINE_CACHE = 4096;
+
+    private final int keyLength;
+    private final int retainedEpochs;
+    private final SecureRandom random = new SecureRandom();
+    private final ConcurrentMap<String, Integer> userIds = new ConcurrentHashMap<>();
+    private final AtomicInteger nextUserId = new AtomicInteger();
+    private final ConcurrentLongMap<Session> sessions = new ConcurrentLongMap<>(1024);
+    private final EngineCache engines;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Caesar session keys, default retention and cache size
+     */
+    public KeyManager() {
+        this(DEFAULT_KEY_LENGTH, DEFAULT_RETAINED_EPOCHS, DEFAULT_ENGINE_CACHE);
+    }
+
+    /**
+     * @param keyLength Letters per key: 1 for Caesar, more for Vigenère
+     * @param retainedEpochs Keys per session that can still open messages, the current one included
+     * @param engineCacheSize Vigenère engines kept in the LRU cache
+     */
+    public KeyManager(int keyLength, int retainedEpochs, int engineCacheSize) {
+        if (keyLength < 1 || retainedEpochs < 1) {
+            throw new IllegalArgumentException("keyLength and retainedEpochs must be at least 1");
+        }
+        this.keyLength = keyLength;
+        this.retainedEpochs = retainedEpochs;
+        this.engines = new EngineCache(engineCacheSize);
+    }
+
+    /**
+     * Registers a user, or returns the id it already has
+     * @param name User name
+     * @return The user's id
+     */
+    public int register(String name) {
+        Integer id = userIds.get(name);
+        if (id != null) {
+            return id;
+        }
+        return userIds.computeIfAbsent(name, n -> nextUserId.getAndIncrement());
+    }
+
+    /**
+     * @param name User name
+     * @return The user's id
+     * @throws IllegalArgumentException If the user is not registered
+     */
+    public int userId(String name) {
+        Integer id = userIds.get(name);
+        if (id == null) {
+            throw new IllegalArgumentException("Unknown user: " + name);
+        }
+        return id;
+    }
+
+    /**
+     * @return Number of sessions created so far
+     */
+    public int sessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Returns the session two users share, creating it with a fresh key on first use
+     * @param userA One user id
+     * @param userB The other user id; the order does not matter
+     * @return The session
+     */
+    public Session session(int userA, int userB) {
+        long key = pairKey(userA, userB);
+        Session session = sessions.get(key);
+        return session != null ? session : sessions.computeIfAbsent(key, k -> new Session());
+    }
+
+    /**
+     * Encrypts a message under the sender and receiver's current session key
+     * @param sender Registered sender
+     * @param receiver Registered receiver
+     * @param plaintext The message text
+     * @return The encrypted message, tagged with the key epoch; its cipher is the
+     *         CipherEngines.session() marker, so the key never travels or gets logged with it
+     */
+    public CaesarCipherAdvanced.Message seal(String sender, String receiver, String plaintext) {
+        KeyState key = session(userId(sender), userId(receiver)).current;
+        CaesarCipherAdvanced.Message message = new CaesarCipherAdvanced.Message(sender, receiver,
+            engine(key).encrypt(plaintext), CipherEngines.session(), true);
+        message.keyEpoch = key.epoch;
+        return message;
+    }
+
+    /**
+     * Decrypts a message with the session key of the epoch it was sealed under
+     * @param message A message produced by seal()
+     * @return The plaintext, or null if that epoch is no longer retained
+     */
+    public String open(CaesarCipherAdvanced.Message message) {
+        if (!message.encrypted) {
+            return message.content;
+        }
+        CipherEngine engine = session(userId(message.sender), userId(message.receiver)).engine(message.keyEpoch);
+        return engine == null ? null : engine.decrypt(message.content);
+    }
+
+    /**
+     * Gives every existing session a new key
+     * @return Number of sessions rotated
+     */
+    public int rotateAll() {
+        int[] rotated = new int[1];
+        sessions.forEachValue(session -> {
+            session.rotate();
+            rotated[0]++;
+        });
+        return rotated[0];
+    }
+
+    /**
+     * Rotates every session key at a fixed rate on a background thread
+     * @param period Time between rotations
+     * @param unit Unit of the period
+     * @return Handle to cancel the schedule
+     */
+    public synchronized ScheduledFuture<?> scheduleRotation(long period, TimeUnit unit) {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "key-rotation");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return scheduler.scheduleAtFixedRate(this::rotateAll, period, period, unit);
+    }
+
+    /**
+     * Stops scheduled rotation
+     */
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * @return Session map key for an unordered pair of user ids
+     */
+    static long pairKey(int userA, int userB) {
+        int low = Math.min(userA, userB);
+        int high = Math.max(userA, userB);
+        return ((long) low << 32) | (high & 0xFFFFFFFFL);
+    }
+
+    private KeyState newKey(int epoch) {
+        if (keyLength == 1) {
+            return new KeyState(epoch, CipherEngines.caesar(1 + random.nextInt(25)), null);
+        }
+        char[] key = new char[keyLength];
+        for (int i = 0; i < keyLength; i++) {
+            key[i] = (char) ('A' + random.nextInt(26));
+        }
+        return new KeyState(epoch, null, new String(key));
+    }
+
+    private CipherEngine engine(KeyState state) {
+        return state.shared != null ? state.shared : engines.get(state.key);
+    }
+
+    /**
+     * Key material for one epoch of a session
+     * Either a shared Caesar engine or the letters of a Vigenère key.
+     */
+    static final class KeyState {
+        final int epoch;
+        final CipherEngine shared;
+        final String key;
+
+        KeyState(int epoch, CipherEngine shared, String key) {
+            this.epoch = epoch;
+            this.shared = shared;
+            this.key = key;
+        }
+    }
+
+    /**
+     * The keys two users share: the current one plus a window of retired ones
+     */
+    public final class Session {
+        private final AtomicReferenceArray<KeyState> epochs = new AtomicReferenceArray<>(retainedEpochs);
+        private volatile KeyState current;
+
+        Session() {
+            install(newKey(0));
+        }
+
+        /**
+         * @return Epoch of the current key
+         */
+        public int epoch() {
+            return current.epoch;
+        }
+
+        /**
+         * @return Engine for the current key
+         */
+        public CipherEngine engine() {
+            return KeyManager.this.engine(current);
+        }
+
+        /**
+         * @param epoch A key epoch, e.g. from Message.keyEpoch
+         * @return Engine for that epoch, or null if it is too old or not issued yet
+         */
+        public CipherEngine engine(int epoch) {
+            KeyState state = epochs.get(Math.floorMod(epoch, retainedEpochs));
+            return state != null && state.epoch == epoch ? KeyManager.this.engine(state) : null;
+        }
+
+        /**
+         * Replaces the current key; the old one stays usable for opening messages
+         */
+        public synchronized void rotate() {
+            install(newKey(current.epoch + 1));
+        }
+
+        private void install(KeyState state) {
+            epochs.set(Math.floorMod(state.epoch, retainedEpochs), state);
+            current = state;
+        }
+    }
+
+    /**
+     * Bounded least-recently-used cache of Vigenère engines by key
+     */
+    private static final class EngineCache {
+        private final Map<String, CipherEngine> entries;
+
+        @SuppressWarnings("serial")
+        EngineCache(int capacity) {
+            this.entries = new LinkedHashMap<String, CipherEngine>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CipherEngine> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+
+        synchronized CipherEngine get(String key) {
+            return entries.computeIfAbsent(key, VigenereEngine::new);
+        }
+    }
+}
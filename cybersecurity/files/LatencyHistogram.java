@@ -0,0 +1,140 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe log-linear latency histogram (HDR style)
+ * Values below 64 get their own bucket. Above that, every power of two is
+ * split into 64 sub-buckets, so any recorded value is reported within
+ * about 1.6%. Recording is one array increment plus the totals. Count, sum
+ * and max are touched by every record(), so they are striped LongAdder and
+ * LongAccumulator cells rather than atomics on one shared cache line. Only
+ * the first contended record() on a thread allocates a cell.
+ *
+ * @author Cybersecurity Project
+ * @version 1.0
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BITS = 6;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_COUNT;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Records one value
+     * @param value The latency (any unit, typically nanoseconds); negatives count as 0
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        buckets.getAndIncrement(indexOf(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * @return Number of recorded values
+     */
+    public long count() {
+        return count.sum();
+    }
+
+    /**
+     * @return Largest recorded value
+     */
+    public long max() {
+        return max.get();
+    }
+
+    /**
+     * @return Arithmetic mean of the recorded values, 0 if empty
+     */
+    public double mean() {
+        long count = count();
+        return count == 0 ? 0.0 : (double) sum.sum() / count;
+    }
+
+    /**
+     * @param percentile Between 0 and 100, e.g. 99.9
+     * @return Upper bound of the bucket holding that percentile, 0 if empty
+     */
+    public long percentile(double percentile) {
+        long count = count();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(count * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBound(i), max());
+            }
+        }
+        return max();
+    }
+
+    /**
+     * Adds another histogram's values to this one
+     * @param other The histogram to merge in
+     */
+    public void merge(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long n = other.buckets.get(i);
+            if (n != 0) {
+                buckets.getAndAdd(i, n);
+            }
+        }
+        count.add(other.count.sum());
+        sum.add(other.sum.sum());
+        max.accumulate(other.max.get());
+    }
+
+    /**
+     * Clears all recorded values
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    /**
+     * Formats count, mean and the usual percentiles, scaling nanoseconds to microseconds
+     * @return A one-line summary
+     */
+    public String summaryMicros() {
+        return String.format("n=%d mean=%.1fus p50=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus",
+            count(), mean() / 1e3, percentile(50) / 1e3, percentile(99) / 1e3,
+            percentile(99.9) / 1e3, max() / 1e3);
+    }
+
+    private static int indexOf(long value) {
+        if (value < SUB_COUNT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int mantissa = (int) (value >>> (exponent - SUB_BITS));
+        return (exponent - SUB_BITS + 1) * SUB_COUNT + (mantissa - SUB_COUNT);
+    }
+
+    private static long upperBound(int index) {
+        if (index < SUB_COUNT) {
+            return index;
+        }
+        int exponent = index / SUB_COUNT + SUB_BITS - 1;
+        long mantissa = index % SUB_COUNT + SUB_COUNT;
+        int unit = exponent - SUB_BITS;
+        return (mantissa << unit) + (1L << unit) - 1;
+    }
+}
@@ -0,0 +1,362 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Letter frequency histogram for A-Z (case-insensitive)
+ * Counting goes into primitive int[] slots with a branch-free table lookup,
+ * nothing is boxed, and the input is never copied or upper-cased.
+ * Inputs above PARALLEL_THRESHOLD are split across the common fork-join pool,
+ * and the per-thread histograms are merged at the end.
+ *
+ * Only ASCII letters are counted, the same characters the cipher shifts.
+ *
+ * @author Cybersecurity Project
+ * @version 1.0
+ */
+public final class LetterHistogram {
+
+    /** Inputs at least this long are counted in parallel */
+    public static final int PARALLEL_THRESHOLD = 1 << 18;
+
+    // Slot 26 collects every non-letter so the inner loops need no branch
+    private static final int OTHER = 26;
+    private static final byte[] SLOT = new byte[256];
+
+    static {
+        for (int c = 0; c < 256; c++) {
+            SLOT[c] = OTHER;
+        }
+        for (int i = 0; i < 26; i++) {
+            SLOT['A' + i] = (byte) i;
+            SLOT['a' + i] = (byte) i;
+        }
+    }
+
+    private final long[] counts = new long[26];
+    private long total;
+
+    /**
+     * Creates an empty histogram; feed it with the add methods
+     */
+    public LetterHistogram() {
+    }
+
+    /**
+     * Counts the letters of a String or any other CharSequence
+     * @param text The text to analyse
+     * @return A new histogram
+     */
+    public static LetterHistogram of(CharSequence text) {
+        LetterHistogram histogram = new LetterHistogram();
+        histogram.add(text, 0, text.length());
+        return histogram;
+    }
+
+    /**
+     * Counts the letters of a byte range (ASCII-compatible encodings)
+     * @param data The bytes to analyse
+     * @param offset Index of the first byte
+     * @param length Number of bytes
+     * @return A new histogram
+     */
+    public static LetterHistogram of(byte[] data, int offset, int length) {
+        LetterHistogram histogram = new LetterHistogram();
+        histogram.add(data, offset, length);
+        return histogram;
+    }
+
+    /**
+     * Counts the letters between a buffer's position and limit
+     * The buffer's position is left untouched.
+     * @param buffer The buffer to analyse (heap or direct)
+     * @return A new histogram
+     */
+    public static LetterHistogram of(ByteBuffer buffer) {
+        LetterHistogram histogram = new LetterHistogram();
+        histogram.add(buffer, buffer.position(), buffer.remaining());
+        return histogram;
+    }
+
+    /**
+     * Counts the letters of a file, streaming it through one reused buffer
+     * @param file The file to analyse
+     * @return A new histogram
+     * @throws IOException If the file cannot be read
+     */
+    public static LetterHistogram of(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return of(channel);
+        }
+    }
+
+    /**
+     * Counts the letters read from a channel until end of stream, e.g. stdin
+     * The channel is not closed.
+     * @param channel The source
+     * @return A new histogram
+     * @throws IOException If reading fails
+     */
+    public static LetterHistogram of(ReadableByteChannel channel) throws IOException {
+        LetterHistogram histogram = new LetterHistogram();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(FileCipher.DEFAULT_CHUNK_SIZE);
+        while (channel.read(buffer) != -1) {
+            buffer.flip();
+            histogram.add(buffer, 0, buffer.limit());
+            buffer.clear();
+        }
+        return histogram;
+    }
+
+    /**
+     * @param c A character or unsigned byte value
+     * @return 0 for A/a through 25 for Z/z, or 26 for anything else
+     */
+    static int slot(int c) {
+        return c < 256 ? SLOT[c] : OTHER;
+    }
+
+    /**
+     * Counts the letters of a short text straight into a caller-owned array
+     * Allocation-free variant for hot loops that reuse one counts array.
+     * @param text The text to analyse
+     * @param counts Array of 26 counters, overwritten
+     * @return Total number of letters
+     */
+    public static long countLetters(CharSequence text, long[] counts) {
+        Arrays.fill(counts, 0, 26, 0L);
+        long letters = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = text.charAt(i);
+            int slot = c < 256 ? SLOT[c] : OTHER;
+            if (slot != OTHER) {
+                counts[slot]++;
+                letters++;
+            }
+        }
+        return letters;
+    }
+
+    /**
+     * Adds the letters of a character range to this histogram
+     * @param text The text to analyse
+     * @param start Index of the first character
+     * @param end Index after the last character
+     */
+    public void add(CharSequence text, int start, int end) {
+        count(start, end, (from, to, slots) -> {
+            for (int i = from; i < to; i++) {
+                char c = text.charAt(i);
+                slots[c < 256 ? SLOT[c] : OTHER]++;
+            }
+        });
+    }
+
+    /**
+     * Adds letters from the start of a text until enough have been seen
+     * Lets callers sample a prefix of a huge input instead of counting all of it.
+     * @param text The text to analyse
+     * @param maxLetters Stop once this many letters have been counted
+     * @return Number of characters consumed
+     */
+    public int addPrefix(CharSequence text, long maxLetters) {
+        int length = text.length();
+        long letters = 0;
+        int i = 0;
+        while (i < length && letters < maxLetters) {
+            char c = text.charAt(i++);
+            int slot = c < 256 ? SLOT[c] : OTHER;
+            if (slot != OTHER) {
+                counts[slot]++;
+                letters++;
+            }
+        }
+        total += letters;
+        return i;
+    }
+
+    /**
+     * Adds the letters of a byte range to this histogram
+     * @param data The bytes to analyse
+     * @param offset Index of the first byte
+     * @param length Number of bytes
+     */
+    public void add(byte[] data, int offset, int length) {
+        checkRange(data.length, offset, length);
+        count(offset, offset + length, (from, to, slots) -> {
+            for (int i = from; i < to; i++) {
+                slots[SLOT[data[i] & 0xFF]]++;
+            }
+        });
+    }
+
+    /**
+     * Adds the letters of a buffer region to this histogram
+     * Uses absolute indexes; the buffer's position and limit are left untouched.
+     * @param buffer The buffer to analyse (heap or direct)
+     * @param offset Absolute index of the first byte
+     * @param length Number of bytes
+     */
+    public void add(ByteBuffer buffer, int offset, int length) {
+        // Checked against the buffer, not the backing array, which may extend past a slice
+        checkRange(buffer.capacity(), offset, length);
+        if (buffer.hasArray()) {
+            add(buffer.array(), buffer.arrayOffset() + offset, length);
+            return;
+        }
+        count(offset, offset + length, (from, to, slots) -> {
+            for (int i = from; i < to; i++) {
+                slots[SLOT[buffer.get(i) & 0xFF]]++;
+            }
+        });
+    }
+
+    private static void checkRange(int capacity, int offset, int length) {
+        if (offset < 0 || length < 0 || offset > capacity - length) {
+            throw new IndexOutOfBoundsException("Range [" + offset + ", " + offset + " + " + length
+                + ") out of bounds for length " + capacity);
+        }
+    }
+
+    /**
+     * Adds another histogram's counts to this one
+     * @param other The histogram to merge in
+     */
+    public void merge(LetterHistogram other) {
+        for (int i = 0; i < 26; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+    }
+
+    /**
+     * @param letterIndex 0 for A through 25 for Z
+     * @return Occurrences of that letter
+     */
+    public long count(int letterIndex) {
+        return counts[letterIndex];
+    }
+
+    /**
+     * @param letter A letter, either case
+     * @return Occurrences of that letter
+     */
+    public long count(char letter) {
+        int slot = letter < 256 ? SLOT[letter] : OTHER;
+        return slot == OTHER ? 0 : counts[slot];
+    }
+
+    /**
+     * @return Total number of letters counted
+     */
+    public long total() {
+        return total;
+    }
+
+    /**
+     * @param letterIndex 0 for A through 25 for Z
+     * @return Share of that letter among all letters, 0.0-1.0
+     */
+    public double frequency(int letterIndex) {
+        return total == 0 ? 0.0 : (double) counts[letterIndex] / total;
+    }
+
+    /**
+     * Prints one bar per letter that occurs, most frequent first
+     * @param out Where to print
+     */
+    public void printChart(PrintStream out) {
+        boolean[] printed = new boolean[26];
+        for (int row = 0; row < 26; row++) {
+            int best = -1;
+            for (int i = 0; i < 26; i++) {
+                if (!printed[i] && counts[i] > 0 && (best < 0 || counts[i] > counts[best])) {
+                    best = i;
+                }
+            }
+            if (best < 0) {
+                return;
+            }
+            printed[best] = true;
+            double percentage = frequency(best) * 100.0;
+            String bar = "█".repeat((int) (percentage * 2));
+            out.printf("%c: %3d (%.2f%%) %s\n", (char) ('A' + best), counts[best], percentage, bar);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("LetterHistogram[total=").append(total);
+        for (int i = 0; i < 26; i++) {
+            if (counts[i] > 0) {
+                sb.append(", ").append((char) ('A' + i)).append('=').append(counts[i]);
+            }
+        }
+        return sb.append(']').toString();
+    }
+
+    private void count(int from, int to, RangeCounter counter) {
+        int[] slots;
+        if (to - from >= PARALLEL_THRESHOLD) {
+            slots = ForkJoinPool.commonPool().invoke(new CountTask(counter, from, to));
+        } else {
+            slots = new int[27];
+            counter.count(from, to, slots);
+        }
+        for (int i = 0; i < 26; i++) {
+            counts[i] += slots[i];
+            total += slots[i];
+        }
+    }
+
+    /**
+     * Counts one index range of some input into 27 slots
+     */
+    private interface RangeCounter {
+        void count(int from, int to, int[] slots);
+    }
+
+    /**
+     * Halves the range until it is small enough, counts each half into its own
+     * slots and merges them on the way back up
+     */
+    private static final class CountTask extends RecursiveTask<int[]> {
+        private static final long serialVersionUID = 1L;
+        private static final int LEAF_SIZE = 1 << 16;
+
+        private final transient RangeCounter counter;
+        private final int from;
+        private final int to;
+
+        CountTask(RangeCounter counter, int from, int to) {
+            this.counter = counter;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from <= LEAF_SIZE) {
+                int[] slots = new int[27];
+                counter.count(from, to, slots);
+                return slots;
+            }
+            int mid = (from + to) >>> 1;
+            CountTask left = new CountTask(counter, from, mid);
+            left.fork();
+            int[] slots = new CountTask(counter, mid, to).compute();
+            int[] leftSlots = left.join();
+            for (int i = 0; i < slots.length; i++) {
+                slots[i] += leftSlots[i];
+            }
+            return slots;
+        }
+    }
+}
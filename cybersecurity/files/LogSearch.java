@@ -0,0 +1,362 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Searches the rotated channel message log
+ * Every segment of the log (plain or gzipped, see AsyncLogAppender.segments)
+ * is scanned on its own task in the common fork-join pool, a few segments
+ * ahead of the output. Compressed segments are inflated as a stream and
+ * never unpacked to disk. Segments last modified before the start of the
+ * time range are skipped without being opened.
+ *
+ * Filters are checked on the raw line before a record is parsed: first the
+ * timestamp, then sender and receiver against the tab positions. So lines
+ * that do not match cost one scan and no allocation beyond the line itself.
+ * Matches can be decrypted on the fly, with a fixed engine or with the
+ * cipher named in the record. Records sealed with a session key name no
+ * key, so they are always shown encrypted.
+ *
+ *   java LogSearch [--log FILE] [--sender NAME] [--receiver NAME] [--from TIME] [--to TIME]
+ *                  [--shift N | --cipher NAME | --decrypt] [--stats]
+ *
+ * TIME is 2026-01-31 or 2026-01-31T14:30 in the local zone, and --to is
+ * exclusive. Exit codes: 0 success, 1 I/O error, 2 usage error.
+ *
+ * @author Cybersecurity Project
+ * @version 1.0
+ */
+public final class LogSearch {
+
+    private static final int READ_BUFFER = 64 * 1024;
+    private static final DateTimeFormatter OUTPUT_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final Path logFile;
+    private final ZoneId zone;
+
+    /**
+     * @param logFile The active log file; its rotated segments are found next to it
+     */
+    public LogSearch(Path logFile) {
+        this(logFile, ZoneId.systemDefault());
+    }
+
+    /**
+     * @param logFile The active log file; its rotated segments are found next to it
+     * @param zone Zone the matched messages' timestamps are expressed in
+     */
+    public LogSearch(Path logFile, ZoneId zone) {
+        this.logFile = logFile;
+        this.zone = zone;
+    }
+
+    /**
+     * What to look for; unset filters match everything
+     */
+    public static final class Query {
+        String sender;
+        String receiver;
+        long fromMillis = Long.MIN_VALUE;
+        long toMillis = Long.MAX_VALUE;
+        CipherEngine decryptor;
+        boolean decryptWithLoggedCipher;
+
+        public Query sender(String sender) {
+            this.sender = sender;
+            return this;
+        }
+
+        public Query receiver(String receiver) {
+            this.receiver = receiver;
+            return this;
+        }
+
+        /**
+         * @param from Inclusive start, in epoch milliseconds
+         * @param to Exclusive end, in epoch milliseconds
+         */
+        public Query between(long from, long to) {
+            this.fromMillis = from;
+            this.toMillis = to;
+            return this;
+        }
+
+        /**
+         * Decrypts encrypted matches with this engine
+         */
+        public Query decryptWith(CipherEngine engine) {
+            this.decryptor = engine;
+            this.decryptWithLoggedCipher = false;
+            return this;
+        }
+
+        /**
+         * Decrypts encrypted matches with the cipher named in each record
+         */
+        public Query decryptWithLoggedCipher() {
+            this.decryptor = null;
+            this.decryptWithLoggedCipher = true;
+            return this;
+        }
+
+        boolean matches(String line, int[] tabs) {
+            if (!MessageLogFormat.split(line, tabs)) {
+                return false;
+            }
+            long millis = MessageLogFormat.parseMillis(line, 0, tabs[0]);
+            return millis >= 0 && millis >= fromMillis && millis < toMillis
+                && (sender == null || MessageLogFormat.fieldEquals(line, tabs[0] + 1, tabs[1], sender))
+                && (receiver == null || MessageLogFormat.fieldEquals(line, tabs[1] + 1, tabs[2], receiver));
+        }
+    }
+
+    /**
+     * One matching record
+     */
+    public static final class Match {
+        private final Path segment;
+        private final CaesarCipherAdvanced.Message message;
+        private final String plaintext;
+
+        Match(Path segment, CaesarCipherAdvanced.Message message, String plaintext) {
+            this.segment = segment;
+            this.message = message;
+            this.plaintext = plaintext;
+        }
+
+        /**
+         * @return The segment file the record was found in
+         */
+        public Path segment() {
+            return segment;
+        }
+
+        CaesarCipherAdvanced.Message message() {
+            return message;
+        }
+
+        /**
+         * @return The decrypted content, or null if the query did not ask for decryption
+         */
+        public String plaintext() {
+            return plaintext;
+        }
+
+        @Override
+        public String toString() {
+            return message.timestamp.format(OUTPUT_FORMAT) + '\t' + message.sender + " -> " + message.receiver
+                + '\t' + message.cipher.name() + '\t' + (plaintext != null ? plaintext : message.content);
+        }
+    }
+
+    /**
+     * Scans the segments in parallel and hands the matches to the sink in log order
+     * A segment's matches are passed on as soon as it and every earlier
+     * segment are done. At most one segment per pool thread, plus one, is
+     * scanned ahead of the sink, so memory stays bounded on any log size.
+     * @param query What to look for
+     * @param sink Receives the matches, oldest segment first, on the calling thread
+     * @return Number of matches
+     * @throws IOException If a segment cannot be read
+     */
+    public long search(Query query, Consumer<Match> sink) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        for (Path segment : AsyncLogAppender.segments(logFile)) {
+            if (query.fromMillis == Long.MIN_VALUE
+                    || lastModifiedMillis(segment) >= query.fromMillis) {
+                segments.add(segment);
+            }
+        }
+
+        int ahead = ForkJoinPool.getCommonPoolParallelism() + 1;
+        ArrayDeque<CompletableFuture<List<Match>>> pending = new ArrayDeque<>();
+        int next = 0;
+        long count = 0;
+        while (next < segments.size() || !pending.isEmpty()) {
+            while (next < segments.size() && pending.size() < ahead) {
+                Path segment = segments.get(next++);
+                pending.add(CompletableFuture.supplyAsync(() -> scan(segment, query), ForkJoinPool.commonPool()));
+            }
+            List<Match> matches;
+            try {
+                matches = pending.remove().join();
+            } catch (CompletionException e) {
+                pending.forEach(scan -> scan.cancel(false));
+                if (e.getCause() instanceof UncheckedIOException) {
+                    throw ((UncheckedIOException) e.getCause()).getCause();
+                }
+                throw e;
+            }
+            for (Match match : matches) {
+                sink.accept(match);
+            }
+            count += matches.size();
+        }
+        return count;
+    }
+
+    private static long lastModifiedMillis(Path segment) {
+        try {
+            return Files.getLastModifiedTime(segment).toMillis();
+        } catch (IOException e) {
+            // Renamed or compressed in the meantime; let the scan deal with it
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private List<Match> scan(Path segment, Query query) {
+        List<Match> matches = new ArrayList<>();
+        int[] tabs = new int[MessageLogFormat.FIELDS - 1];
+        try (BufferedReader reader = open(segment)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!query.matches(line, tabs)) {
+                    continue;
+                }
+                CaesarCipherAdvanced.Message message = MessageLogFormat.parse(line, zone);
+                if (message != null) {
+                    matches.add(new Match(segment, message, decrypt(message, query)));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return matches;
+    }
+
+    private static String decrypt(CaesarCipherAdvanced.Message message, Query query) {
+        CipherEngine engine = query.decryptWithLoggedCipher ? message.cipher : query.decryptor;
+        if (engine == null || message.cipher == CipherEngines.session()) {
+            return null;
+        }
+        return message.encrypted ? engine.decrypt(message.content) : message.content;
+    }
+
+    /**
+     * Opens a segment for reading, following it to its .gz if it was compressed since it was listed
+     */
+    private static BufferedReader open(Path segment) throws IOException {
+        InputStream in;
+        String name = segment.getFileName().toString();
+        try {
+            in = Files.newInputStream(segment);
+        } catch (NoSuchFileException e) {
+            if (name.endsWith(".gz")) {
+                throw e;
+            }
+            segment = segment.resolveSibling(name + ".gz");
+            name = segment.getFileName().toString();
+            in = Files.newInputStream(segment);
+        }
+        if (name.endsWith(".gz")) {
+            in = new GZIPInputStream(in, READ_BUFFER);
+        }
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), READ_BUFFER);
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /**
+     * Runs one search without exiting the JVM
+     * @return The exit code
+     */
+    static int run(String[] args, PrintStream out, PrintStream err) {
+        Path log = Paths.get("cipher_log.txt");
+        Query query = new Query();
+        long from = Long.MIN_VALUE;
+        long to = Long.MAX_VALUE;
+        boolean stats = false;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String option = args[i];
+                if (option.equals("--stats")) {
+                    stats = true;
+                    continue;
+                }
+                if (option.equals("--decrypt")) {
+                    query.decryptWithLoggedCipher();
+                    continue;
+                }
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("missing value for " + option);
+                }
+                String value = args[++i];
+                switch (option) {
+                    case "--log":
+                        log = Paths.get(value);
+                        break;
+                    case "--sender":
+                        query.sender(value);
+                        break;
+                    case "--receiver":
+                        query.receiver(value);
+                        break;
+                    case "--from":
+                        from = parseTime(value);
+                        break;
+                    case "--to":
+                        to = parseTime(value);
+                        break;
+                    case "--shift":
+                        query.decryptWith(CipherEngines.caesar(Integer.parseInt(value)));
+                        break;
+                    case "--cipher":
+                        query.decryptWith(CipherEngines.key(value));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("unknown option: " + option);
+                }
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            err.println("Error: " + e.getMessage());
+            err.println("Usage: java LogSearch [--log FILE] [--sender NAME] [--receiver NAME] [--from TIME] [--to TIME]");
+            err.println("                      [--shift N | --cipher NAME | --decrypt] [--stats]");
+            err.println("TIME is 2026-01-31 or 2026-01-31T14:30 (local time); --to is exclusive");
+            return 2;
+        }
+        query.between(from, to);
+
+        long start = System.nanoTime();
+        long matches;
+        try {
+            matches = new LogSearch(log).search(query, out::println);
+        } catch (IOException e) {
+            err.println("Error: " + e.getMessage());
+            return 1;
+        }
+        if (stats) {
+            err.printf("[STATS] %d matches in %.1f ms%n", matches, (System.nanoTime() - start) / 1e6);
+        }
+        return 0;
+    }
+
+    private static long parseTime(String value) {
+        LocalDateTime time = value.indexOf('T') < 0
+            ? LocalDate.parse(value).atStartOfDay()
+            : LocalDateTime.parse(value);
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,331 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * TCP client for MessageServer with pipelining and batched writes
+ * send() encodes the frame straight into a direct buffer and, for plaintext,
+ * encrypts it in place there. Nothing goes on the wire until flush() is
+ * called or the buffer fills up, so many small messages share one write.
+ * Up to maxInFlight messages may be waiting for their ACK. A reader
+ * thread matches ACKs to send times and records round-trip latency.
+ *
+ * main() is a loopback load generator:
+ *   java MessageClient [--host H] [--port P] [--clients N] [--messages N]
+ *                      [--size BYTES] [--batch N] [--window N]
+ * Without --host it starts a MessageServer in the same JVM on a free port.
+ *
+ * @author Cybersecurity Project
+ * @version 1.0
+ */
+public final class MessageClient implements AutoCloseable {
+
+    public static final int DEFAULT_MAX_IN_FLIGHT = 4096;
+
+    private static final int READ_BUFFER = 64 * 1024;
+
+    private final SocketChannel socket;
+    private final MessageWire.Encoder encoder = new MessageWire.Encoder();
+    private final ByteBuffer out = ByteBuffer.allocateDirect(MessageWire.MAX_FRAME);
+    private final int window;
+    private final AtomicLongArray sendTimes;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final AtomicLong acked = new AtomicLong();
+    private final Thread reader;
+    private volatile Thread waiter;
+    private volatile IOException failure;
+    private long nextSequence;
+
+    /**
+     * Connects with the default in-flight window
+     * @param address Server address
+     * @throws IOException If the connection fails
+     */
+    public MessageClient(InetSocketAddress address) throws IOException {
+        this(address, DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    /**
+     * @param address Server address
+     * @param maxInFlight Unacknowledged messages allowed before send() waits
+     * @throws IOException If the connection fails
+     */
+    public MessageClient(InetSocketAddress address, int maxInFlight) throws IOException {
+        this.socket = SocketChannel.open(address);
+        socket.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        this.window = Integer.highestOneBit(Math.max(1, maxInFlight - 1)) << 1;
+        this.sendTimes = new AtomicLongArray(window);
+        this.reader = new Thread(this::readAcks, "message-client-acks");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    /**
+     * Queues a message whose content is already in its final form
+     * @param message The message
+     * @return Its sequence number
+     * @throws IOException If the connection failed
+     */
+    public synchronized long send(CaesarCipherAdvanced.Message message) throws IOException {
+        long sequence = reserve();
+        while (!encoder.put(out, sequence, message)) {
+            makeRoom();
+        }
+        nextSequence = sequence + 1;
+        return sequence;
+    }
+
+    /**
+     * Queues a plaintext message, encrypting it directly in the send buffer
+     * @param sender Sending user
+     * @param receiver Receiving user
+     * @param plaintext Message text; never turned into an intermediate String
+     * @param cipher Engine to encrypt with; its name travels with the message
+     * @return Its sequence number
+     * @throws IOException If the connection failed
+     */
+    public synchronized long send(String sender, String receiver, CharSequence plaintext, CipherEngine cipher)
+            throws IOException {
+        long sequence = reserve();
+        long now = System.currentTimeMillis();
+        while (!encoder.put(out, sequence, now, sender, receiver, plaintext, cipher, true, 0, cipher.encryptor())) {
+            makeRoom();
+        }
+        nextSequence = sequence + 1;
+        return sequence;
+    }
+
+    /**
+     * Writes every queued frame to the socket
+     * @throws IOException If the write fails
+     */
+    public synchronized void flush() throws IOException {
+        checkFailure();
+        out.flip();
+        while (out.hasRemaining()) {
+            socket.write(out);
+        }
+        out.clear();
+    }
+
+    /**
+     * Flushes and waits until every sent message has been acknowledged
+     * @param timeout How long to wait
+     * @param unit Unit of the timeout
+     * @return True if all ACKs arrived in time
+     * @throws IOException If the connection failed
+     */
+    public boolean awaitAcks(long timeout, TimeUnit unit) throws IOException {
+        long target;
+        synchronized (this) {
+            flush();
+            target = nextSequence;
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (acked.get() < target) {
+            checkFailure();
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            park(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(1)));
+        }
+        return true;
+    }
+
+    /**
+     * @return Round-trip times in nanoseconds, from send() to the ACK
+     */
+    public LatencyHistogram latency() {
+        return latency;
+    }
+
+    /**
+     * @return Messages acknowledged by the server
+     */
+    public long ackedMessages() {
+        return acked.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+        try {
+            reader.join(TimeUnit.SECONDS.toMillis(1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns the next sequence number, waiting while the window is full
+     * The caller takes it by advancing nextSequence once the frame is queued,
+     * so a send that throws never leaves a gap awaitAcks() would wait on.
+     */
+    private long reserve() throws IOException {
+        checkFailure();
+        long sequence = nextSequence;
+        if (sequence - acked.get() >= window) {
+            flush();
+            while (sequence - acked.get() >= window) {
+                checkFailure();
+                park(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+        }
+        sendTimes.set((int) sequence & (window - 1), System.nanoTime());
+        return sequence;
+    }
+
+    private void makeRoom() throws IOException {
+        if (out.position() == 0) {
+            throw new IllegalArgumentException("Message exceeds the maximum frame size of "
+                + MessageWire.MAX_FRAME + " bytes");
+        }
+        flush();
+    }
+
+    private void park(long nanos) {
+        waiter = Thread.currentThread();
+        if (!Thread.currentThread().isInterrupted()) {
+            LockSupport.parkNanos(this, nanos);
+        }
+        waiter = null;
+    }
+
+    private void checkFailure() throws IOException {
+        IOException e = failure;
+        if (e != null) {
+            throw new IOException("Connection failed", e);
+        }
+    }
+
+    private void readAcks() {
+        ByteBuffer in = ByteBuffer.allocateDirect(READ_BUFFER);
+        try {
+            while (socket.read(in) >= 0) {
+                in.flip();
+                while (MessageWire.completeFrame(in) > 0) {
+                    in.getInt();
+                    if (in.get() != MessageWire.TYPE_ACK) {
+                        throw new IOException("Unexpected frame from server");
+                    }
+                    long sequence = in.getLong();
+                    latency.record(System.nanoTime() - sendTimes.get((int) sequence & (window - 1)));
+                    acked.incrementAndGet();
+                }
+                in.compact();
+                Thread w = waiter;
+                if (w != null) {
+                    LockSupport.unpark(w);
+                }
+            }
+            failure = new IOException("Server closed the connection");
+        } catch (IOException e) {
+            if (socket.isOpen()) {
+                failure = e;
+            }
+        } catch (RuntimeException e) {
+            failure = new IOException("Malformed frame from server: " + e.getMessage(), e);
+        } finally {
+            Thread w = waiter;
+            if (w != null) {
+                LockSupport.unpark(w);
+            }
+        }
+    }
+
+    /**
+     * Loopback load generator; see the class comment for options
+     */
+    public static void main(String[] args) throws Exception {
+        String host = null;
+        int port = 0;
+        int clients = 4;
+        int messages = 250_000;
+        int size = 64;
+        int batch = 64;
+        int window = DEFAULT_MAX_IN_FLIGHT;
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : "";
+            switch (args[i]) {
+                case "--host": host = value; i++; break;
+                case "--port": port = Integer.parseInt(value); i++; break;
+                case "--clients": clients = Integer.parseInt(value); i++; break;
+                case "--messages": messages = Integer.parseInt(value); i++; break;
+                case "--size": size = Integer.parseInt(value); i++; break;
+                case "--batch": batch = Integer.parseInt(value); i++; break;
+                case "--window": window = Integer.parseInt(value); i++; break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(2);
+            }
+        }
+
+        MessageServer server = null;
+        if (host == null) {
+            host = "127.0.0.1";
+            server = new MessageServer(new InetSocketAddress(host, port), message -> { });
+            port = server.port();
+        }
+        InetSocketAddress address = new InetSocketAddress(host, port);
+        StringBuilder text = new StringBuilder(size);
+        for (int i = 0; i < size; i++) {
+            text.append((char) ('A' + i % 26));
+        }
+        CipherEngine cipher = CipherEngines.caesar(3);
+
+        System.out.printf("Load test: %d clients x %d messages of %d bytes to %s (batch %d, window %d)%n",
+            clients, messages, size, address, batch, window);
+        List<MessageClient> connections = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            connections.add(new MessageClient(address, window));
+        }
+        List<Thread> senders = new ArrayList<>();
+        int perClient = messages;
+        int perBatch = Math.max(1, batch);
+        long start = System.nanoTime();
+        for (MessageClient client : connections) {
+            Thread t = new Thread(() -> {
+                try {
+                    for (int m = 0; m < perClient; m++) {
+                        client.send("load", "sink", text, cipher);
+                        if ((m + 1) % perBatch == 0) {
+                            client.flush();
+                        }
+                    }
+                    client.awaitAcks(1, TimeUnit.MINUTES);
+                } catch (IOException e) {
+                    System.err.println("Load client failed: " + e.getMessage());
+                }
+            }, "load-client");
+            t.start();
+            senders.add(t);
+        }
+        for (Thread t : senders) {
+            t.join();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        LatencyHistogram total = new LatencyHistogram();
+        long acked = 0;
+        for (MessageClient client : connections) {
+            total.merge(client.latency());
+            acked += client.ackedMessages();
+            client.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+        System.out.printf("Acknowledged %d messages in %.1f ms: %.0f msg/s%n",
+            acked, elapsed / 1e6, acked * 1e9 / elapsed);
+        System.out.println("Round trip: " + total.summaryMicros());
+    }
+}
@@ -0,0 +1,170 @@
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * One-line, tab-separated text format of the channel message log
+ *
+ *   epochMillis TAB sender TAB receiver TAB cipher TAB E|P TAB keyEpoch TAB content LF
+ *
+ * E marks encrypted content and P plaintext. Backslash, tab, CR and LF
+ * inside a field are written as \\, \t, \r and \n, so every record is
+ * exactly one line. A typical record is the content plus about 40 bytes,
+ * where the old block format added two 80-character separator lines and a
+ * formatted date. Lines that do not parse are skipped by readers, so logs
+ * that still hold old-format records remain searchable.
+ *
+ * @author Cybersecurity Project
+ * @version 1.0
+ */
+final class MessageLogFormat {
+
+    static final int FIELDS = 7;
+
+    private MessageLogFormat() {
+    }
+
+    /**
+     * Appends one record; runs on the log writer thread
+     * @param message The message to render
+     * @param zone Zone the message timestamp is expressed in
+     * @param out Receives the line, including its newline
+     */
+    static void format(CaesarCipherAdvanced.Message message, ZoneId zone, StringBuilder out) {
+        out.append(message.timestamp.atZone(zone).toInstant().toEpochMilli()).append('\t');
+        escape(message.sender, out);
+        out.append('\t');
+        escape(message.receiver, out);
+        out.append('\t').append(message.cipher.name())
+           .append('\t').append(message.encrypted ? 'E' : 'P')
+           .append('\t').append(message.keyEpoch)
+           .append('\t');
+        escape(message.content, out);
+        out.append('\n');
+    }
+
+    /**
+     * @param line One log line without its newline
+     * @param zone Zone to express the timestamp in
+     * @return The message, or null if the line is not a record in this format
+     */
+    static CaesarCipherAdvanced.Message parse(String line, ZoneId zone) {
+        int[] tabs = new int[FIELDS - 1];
+        if (!split(line, tabs)) {
+            return null;
+        }
+        long millis = parseMillis(line, 0, tabs[0]);
+        String flag = line.substring(tabs[3] + 1, tabs[4]);
+        if (millis < 0 || !(flag.equals("E") || flag.equals("P"))) {
+            return null;
+        }
+        CipherEngine cipher;
+        int keyEpoch;
+        try {
+            cipher = CipherEngines.forName(line.substring(tabs[2] + 1, tabs[3]));
+            keyEpoch = Integer.parseInt(line, tabs[4] + 1, tabs[5], 10);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        CaesarCipherAdvanced.Message message = new CaesarCipherAdvanced.Message(
+            unescape(line, tabs[0] + 1, tabs[1]), unescape(line, tabs[1] + 1, tabs[2]),
+            unescape(line, tabs[5] + 1, line.length()), cipher, flag.equals("E"));
+        message.timestamp = LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), zone);
+        message.keyEpoch = keyEpoch;
+        return message;
+    }
+
+    /**
+     * Finds the six tab positions of a record
+     * @param line One log line
+     * @param tabs Receives the index of each separating tab
+     * @return False if the line has too few fields
+     */
+    static boolean split(String line, int[] tabs) {
+        int from = 0;
+        for (int i = 0; i < FIELDS - 1; i++) {
+            int tab = line.indexOf('\t', from);
+            if (tab < 0) {
+                return false;
+            }
+            tabs[i] = tab;
+            from = tab + 1;
+        }
+        return true;
+    }
+
+    /**
+     * @return The decimal number in [from, to), or -1 if it is not one
+     */
+    static long parseMillis(String line, int from, int to) {
+        if (from == to || to - from > 18) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            char c = line.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Compares an escaped field with a plain value without unescaping it
+     */
+    static boolean fieldEquals(String line, int from, int to, String value) {
+        int slash = line.indexOf('\\', from);
+        if (slash < 0 || slash >= to) {
+            return to - from == value.length() && line.regionMatches(from, value, 0, value.length());
+        }
+        return unescape(line, from, to).equals(value);
+    }
+
+    private static void escape(String value, StringBuilder out) {
+        int n = value.length();
+        int i = 0;
+        while (i < n && value.charAt(i) != '\\' && value.charAt(i) >= ' ') {
+            i++;
+        }
+        out.append(value, 0, i);
+        for (; i < n; i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                default:
+                    out.append(c);
+            }
+        }
+    }
+
+    private static String unescape(String line, int from, int to) {
+        int slash = line.indexOf('\\', from);
+        if (slash < 0 || slash >= to) {
+            return line.substring(from, to);
+        }
+        StringBuilder out = new StringBuilder(to - from);
+        for (int i = from; i < to; i++) {
+            char c = line.charAt(i);
+            if (c == '\\' && i + 1 < to) {
+                char next = line.charAt(++i);
+                out.append(next == 't' ? '\t' : next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,224 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Non-blocking TCP server that receives MessageWire frames
+ * One selector thread serves all connections. Each read drains every
+ * complete frame from the connection's direct buffer and hands the decoded
+ * messages to the handler. It then sends all the ACKs for that read with a
+ * single write, so a pipelining client gets one ACK write per batch, not
+ * one per message.
+ *
+ * The handler runs on the selector thread and should be quick.
+ * Delivering into a CommunicationChannel (channel::sendMessage) is fine.
+ *
+ * @author Cybersecurity Project
+ * @version 1.0
+ */
+public final class MessageServer implements AutoCloseable {
+
+    private static final int READ_BUFFER = 64 * 1024;
+    private static final int WRITE_BUFFER = 64 * 1024;
+
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final Consumer<CaesarCipherAdvanced.Message> handler;
+    private final Thread loop;
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong connections = new AtomicLong();
+    private volatile boolean closed;
+
+    /**
+     * Binds the server and starts its selector thread
+     * @param address Address to listen on; port 0 picks a free port
+     * @param handler Receives every decoded message
+     * @throws IOException If the address cannot be bound
+     */
+    public MessageServer(InetSocketAddress address, Consumer<CaesarCipherAdvanced.Message> handler)
+            throws IOException {
+        this.handler = handler;
+        this.selector = Selector.open();
+        this.server = ServerSocketChannel.open();
+        server.bind(address);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        this.loop = new Thread(this::selectLoop, "message-server-" + port());
+        loop.setDaemon(true);
+        loop.start();
+    }
+
+    /**
+     * @return The port the server is listening on
+     */
+    public int port() {
+        return server.socket().getLocalPort();
+    }
+
+    /**
+     * @return Messages received since the server started
+     */
+    public long receivedMessages() {
+        return received.get();
+    }
+
+    /**
+     * @return Connections accepted since the server started
+     */
+    public long acceptedConnections() {
+        return connections.get();
+    }
+
+    /**
+     * Stops the selector thread and closes every connection
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        selector.wakeup();
+        try {
+            loop.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (SelectionKey key : selector.keys()) {
+            key.channel().close();
+        }
+        selector.close();
+    }
+
+    private void selectLoop() {
+        try {
+            while (!closed) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    try {
+                        if (!key.isValid()) {
+                            continue;
+                        }
+                        if (key.isAcceptable()) {
+                            accept();
+                        } else {
+                            Connection connection = (Connection) key.attachment();
+                            if (key.isReadable()) {
+                                connection.read();
+                            }
+                            if (key.isValid() && key.isWritable()) {
+                                connection.write();
+                            }
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        System.err.println("[SERVER] Closing connection: " + e.getMessage());
+                        key.cancel();
+                        key.channel().close();
+                    }
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            if (!closed) {
+                System.err.println("[SERVER] Selector failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel socket = server.accept();
+        if (socket == null) {
+            return;
+        }
+        socket.configureBlocking(false);
+        socket.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        SelectionKey key = socket.register(selector, SelectionKey.OP_READ);
+        key.attach(new Connection(socket, key));
+        connections.incrementAndGet();
+    }
+
+    /**
+     * Per-connection buffers and decoder; used by the selector thread only
+     */
+    private final class Connection {
+        private final SocketChannel socket;
+        private final SelectionKey key;
+        private final MessageWire.Decoder decoder = new MessageWire.Decoder();
+        private ByteBuffer in = ByteBuffer.allocateDirect(READ_BUFFER);
+        private final ByteBuffer out = ByteBuffer.allocateDirect(WRITE_BUFFER);
+        private boolean stalled;
+
+        Connection(SocketChannel socket, SelectionKey key) {
+            this.socket = socket;
+            this.key = key;
+        }
+
+        void read() throws IOException {
+            if (socket.read(in) < 0) {
+                key.cancel();
+                socket.close();
+                return;
+            }
+            process();
+        }
+
+        void write() throws IOException {
+            out.flip();
+            socket.write(out);
+            out.compact();
+            if (out.position() > 0) {
+                key.interestOps(SelectionKey.OP_WRITE);
+            } else if (stalled) {
+                process();
+            } else {
+                key.interestOps(SelectionKey.OP_READ);
+            }
+        }
+
+        /**
+         * Handles every complete frame in the read buffer, then sends the ACKs
+         */
+        private void process() throws IOException {
+            in.flip();
+            int frame;
+            stalled = false;
+            while ((frame = MessageWire.completeFrame(in)) > 0) {
+                if (out.remaining() < MessageWire.ACK_FRAME) {
+                    // ACKs are backed up; stop reading until the client drains them
+                    stalled = true;
+                    break;
+                }
+                CaesarCipherAdvanced.Message message = decoder.message(in);
+                received.incrementAndGet();
+                handler.accept(message);
+                MessageWire.putAck(out, decoder.lastSequence());
+            }
+            in.compact();
+            if (frame < 0 && !in.hasRemaining()) {
+                grow();
+            }
+            write();
+        }
+
+        /**
+         * Makes room for a frame larger than the current read buffer
+         */
+        private void grow() {
+            if (in.capacity() >= MessageWire.MAX_FRAME) {
+                return;
+            }
+            ByteBuffer larger = ByteBuffer.allocateDirect(Math.min(in.capacity() * 2, MessageWire.MAX_FRAME));
+            in.flip();
+            larger.put(in);
+            in = larger;
+        }
+    }
+}
@@ -0,0 +1,693 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Append-only binary store for channel messages
+ *
+ * File layout: an 8-byte header ("CMSG", version), then records of the form
+ * [int bodyLength][int crc32(body)][body]. The first body byte is the record type:
+ *   NAME    [int id][utf-8 bytes]  interns a user or cipher name
+ *   MESSAGE [long epochMillis][int senderId][int receiverId][int cipherId][byte flags][int keyEpoch]
+ *           [utf-8 content]
+ *
+ * Reads go through read-only memory mappings of fixed 64 MB windows. A
+ * window mapped while the file was shorter is replaced once, when the file
+ * has grown past its full size; records appended beyond a short window are
+ * read with a positional channel read instead.
+ *
+ * Secondary indexes by sender, receiver and time are kept in primitive
+ * arrays, about 24 bytes of heap per message: its offset and timestamp and
+ * one posting in each of the sender and receiver lists. close() saves them,
+ * with the symbol table, to a checkpoint file next to the store (FILE.idx).
+ * open() loads a checkpoint that still matches the store and scans only the
+ * records appended after it, so startup reads the checkpoint plus the new
+ * tail. Without a usable checkpoint, e.g. after a crash before the first
+ * close, open() rebuilds everything from a header-only pass over the whole
+ * file that skips payloads by their length prefix.
+ *
+ * CRCs are only checked in the tail, the only place an interrupted append
+ * can leave damage. A torn or corrupt tail is truncated away; damage
+ * further back fails open() with the offset of the bad record if the scan
+ * reaches it, and get() for that record otherwise.
+ *
+ * @author Cybersecurity Project
+ * @version 1.0
+ */
+public final class MessageStore implements AutoCloseable {
+
+    private static final int MAGIC = 0x434D5347; // "CMSG"
+    private static final short VERSION = 2;
+    private static final int FILE_HEADER = 8;
+    private static final int RECORD_HEADER = 8;
+    private static final byte TYPE_NAME = 1;
+    private static final byte TYPE_MESSAGE = 2;
+    private static final int MESSAGE_FIXED = 1 + 8 + 4 + 4 + 4 + 1 + 4;
+    private static final byte FLAG_ENCRYPTED = 1;
+
+    /** Largest record body accepted */
+    public static final int MAX_RECORD = 16 << 20;
+
+    private static final long WINDOW = 64L << 20;
+    private static final long FULL_WINDOW = WINDOW + MAX_RECORD + RECORD_HEADER;
+    private static final long VERIFY_TAIL = 4L << 20;
+    private static final int CHECKPOINT_MAGIC = 0x43494458; // "CIDX"
+    private static final int CHECKPOINT_TAIL = 4096;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final ZoneId zone;
+    private long end;
+
+    // Symbol table: names <-> dense ids
+    private final Map<String, Integer> symbolIds = new HashMap<>();
+    private final List<String> symbols = new ArrayList<>();
+
+    // Per-message primary data and secondary indexes
+    private long[] offsets = new long[1024];
+    private long[] timestamps = new long[1024];
+    private int count;
+    private boolean timeOrdered = true;
+    private final List<IntList> bySender = new ArrayList<>();
+    private final List<IntList> byReceiver = new ArrayList<>();
+
+    private ByteBuffer writeBuffer = ByteBuffer.allocateDirect(64 * 1024);
+    private final CRC32 crc = new CRC32();
+    private MappedByteBuffer[] windows = new MappedByteBuffer[0];
+
+    private MessageStore(Path file, FileChannel channel, ZoneId zone) {
+        this.file = file;
+        this.channel = channel;
+        this.zone = zone;
+    }
+
+    /**
+     * Opens or creates a store, recovering from a torn tail if needed
+     * @param file The store file
+     * @return The open store
+     * @throws IOException If the file cannot be opened, is not a message store, or is damaged before its tail
+     */
+    public static MessageStore open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        MessageStore store = new MessageStore(file, channel, ZoneId.systemDefault());
+        try {
+            store.recover();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return store;
+    }
+
+    /**
+     * Appends one message
+     * @param message The message to store
+     * @return Index of the stored message
+     * @throws IOException If the write fails; the file is cut back to where it was
+     */
+    public synchronized int append(CaesarCipherAdvanced.Message message) throws IOException {
+        long start = end;
+        int symbolCount = symbols.size();
+        try {
+            int sender = intern(message.sender);
+            int receiver = intern(message.receiver);
+            int cipher = intern(message.cipher.name());
+            byte[] content = message.content.getBytes(StandardCharsets.UTF_8);
+            if (MESSAGE_FIXED + content.length > MAX_RECORD) {
+                throw new IllegalArgumentException("Message too large for store: " + content.length + " bytes");
+            }
+            long millis = message.timestamp.atZone(zone).toInstant().toEpochMilli();
+
+            ByteBuffer body = beginRecord(MESSAGE_FIXED + content.length);
+            body.put(TYPE_MESSAGE).putLong(millis).putInt(sender).putInt(receiver).putInt(cipher)
+                .put(message.encrypted ? FLAG_ENCRYPTED : 0).putInt(message.keyEpoch).put(content);
+            long offset = writeRecord();
+            return index(offset, millis, sender, receiver);
+        } catch (IOException e) {
+            // Also drops NAME records interned for this message, so no torn bytes stay behind
+            rollback(start, symbolCount, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Forces appended records to the storage device
+     * @throws IOException If the sync fails
+     */
+    public void force() throws IOException {
+        channel.force(false);
+    }
+
+    /**
+     * @return Number of stored messages
+     */
+    public synchronized int size() {
+        return count;
+    }
+
+    /**
+     * Reads one message back
+     * @param index 0-based message index
+     * @return The message, with its original timestamp
+     * @throws IOException If the file cannot be mapped or the record is damaged
+     */
+    public synchronized CaesarCipherAdvanced.Message get(int index) throws IOException {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Message " + index + " of " + count);
+        }
+        ByteBuffer record = record(offsets[index]);
+        int position = record.position();
+        int length = record.getInt(position);
+        int body = position + RECORD_HEADER;
+        long millis = record.getLong(body + 1);
+        String sender = symbols.get(record.getInt(body + 9));
+        String receiver = symbols.get(record.getInt(body + 13));
+        String cipher = symbols.get(record.getInt(body + 17));
+        boolean encrypted = (record.get(body + 21) & FLAG_ENCRYPTED) != 0;
+        int keyEpoch = record.getInt(body + 22);
+        byte[] content = new byte[length - MESSAGE_FIXED];
+        record.slice(body + MESSAGE_FIXED, content.length).get(content);
+
+        CaesarCipherAdvanced.Message message = new CaesarCipherAdvanced.Message(sender, receiver,
+            new String(content, StandardCharsets.UTF_8), CipherEngines.forName(cipher), encrypted);
+        message.timestamp = LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), zone);
+        message.keyEpoch = keyEpoch;
+        return message;
+    }
+
+    /**
+     * @param sender A user name
+     * @return Indexes of that user's sent messages, oldest first
+     */
+    public synchronized int[] indexesBySender(String sender) {
+        return lookup(bySender, sender);
+    }
+
+    /**
+     * @param receiver A user name
+     * @return Indexes of the messages sent to that user, oldest first
+     */
+    public synchronized int[] indexesByReceiver(String receiver) {
+        return lookup(byReceiver, receiver);
+    }
+
+    /**
+     * Finds messages in a time range; binary search while appends arrived
+     * in timestamp order, a linear scan of the timestamp column otherwise
+     * @param from Inclusive lower bound
+     * @param to Exclusive upper bound
+     * @return Indexes of matching messages in append order
+     */
+    public synchronized int[] indexesBetween(Instant from, Instant to) {
+        long lo = from.toEpochMilli();
+        long hi = to.toEpochMilli();
+        if (timeOrdered) {
+            int first = lowerBound(lo);
+            int last = lowerBound(hi);
+            int[] result = new int[Math.max(0, last - first)];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = first + i;
+            }
+            return result;
+        }
+        IntList matches = new IntList();
+        for (int i = 0; i < count; i++) {
+            if (timestamps[i] >= lo && timestamps[i] < hi) {
+                matches.add(i);
+            }
+        }
+        return matches.toArray();
+    }
+
+    /**
+     * Reads a set of messages in order
+     * @param indexes Message indexes, e.g. from one of the index lookups
+     * @param consumer Receives each message
+     * @throws IOException If the file cannot be mapped
+     */
+    public void forEach(int[] indexes, Consumer<CaesarCipherAdvanced.Message> consumer) throws IOException {
+        for (int index : indexes) {
+            consumer.accept(get(index));
+        }
+    }
+
+    /**
+     * @return The store file
+     */
+    public Path file() {
+        return file;
+    }
+
+    /**
+     * Forces the store and saves the indexes to the checkpoint file
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        windows = new MappedByteBuffer[0];
+        try {
+            channel.force(false);
+            writeCheckpoint();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private int[] lookup(List<IntList> index, String name) {
+        Integer id = symbolIds.get(name);
+        if (id == null || id >= index.size() || index.get(id) == null) {
+            return new int[0];
+        }
+        return index.get(id).toArray();
+    }
+
+    private int lowerBound(long millis) {
+        int lo = 0;
+        int hi = count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (timestamps[mid] < millis) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private int intern(String name) throws IOException {
+        Integer id = symbolIds.get(name);
+        if (id != null) {
+            return id;
+        }
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        int newId = symbols.size();
+        ByteBuffer body = beginRecord(1 + 4 + bytes.length);
+        body.put(TYPE_NAME).putInt(newId).put(bytes);
+        writeRecord();
+        addSymbol(newId, name);
+        return newId;
+    }
+
+    private void addSymbol(int id, String name) {
+        if (id != symbols.size()) {
+            throw new IllegalStateException("Symbol ids out of order in " + file);
+        }
+        symbols.add(name);
+        symbolIds.put(name, id);
+    }
+
+    private ByteBuffer beginRecord(int bodyLength) {
+        int needed = RECORD_HEADER + bodyLength;
+        if (writeBuffer.capacity() < needed) {
+            writeBuffer = ByteBuffer.allocateDirect(Integer.highestOneBit(needed) << 1);
+        }
+        writeBuffer.clear();
+        writeBuffer.putInt(bodyLength).putInt(0);
+        return writeBuffer;
+    }
+
+    /**
+     * Fills in the CRC of the record prepared in writeBuffer and appends it
+     * @return File offset of the record
+     */
+    private long writeRecord() throws IOException {
+        writeBuffer.flip();
+        crc.reset();
+        crc.update(writeBuffer.duplicate().position(RECORD_HEADER));
+        writeBuffer.putInt(4, (int) crc.getValue());
+        long offset = end;
+        try {
+            while (writeBuffer.hasRemaining()) {
+                end += channel.write(writeBuffer, end);
+            }
+        } catch (IOException e) {
+            rollback(offset, symbols.size(), e);
+            throw e;
+        }
+        return offset;
+    }
+
+    /**
+     * Cuts the file back to offset after a failed write, and forgets the
+     * names interned since. Otherwise the next record would land after the
+     * torn bytes.
+     */
+    private void rollback(long offset, int symbolCount, IOException cause) {
+        end = offset;
+        while (symbols.size() > symbolCount) {
+            symbolIds.remove(symbols.remove(symbols.size() - 1));
+        }
+        try {
+            channel.truncate(offset);
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    private int index(long offset, long millis, int sender, int receiver) {
+        if (count == offsets.length) {
+            offsets = Arrays.copyOf(offsets, count * 2);
+            timestamps = Arrays.copyOf(timestamps, count * 2);
+        }
+        if (count > 0 && millis < timestamps[count - 1]) {
+            timeOrdered = false;
+        }
+        offsets[count] = offset;
+        timestamps[count] = millis;
+        postings(bySender, sender).add(count);
+        postings(byReceiver, receiver).add(count);
+        return count++;
+    }
+
+    private static IntList postings(List<IntList> index, int id) {
+        while (index.size() <= id) {
+            index.add(null);
+        }
+        IntList list = index.get(id);
+        if (list == null) {
+            list = new IntList();
+            index.set(id, list);
+        }
+        return list;
+    }
+
+    /**
+     * Maps the window holding a record start. Each window extends MAX_RECORD
+     * past its 64 MB slot, so a record never straddles two windows. A short
+     * window is remapped only once the file covers the full window.
+     */
+    private MappedByteBuffer windowFor(long offset) throws IOException {
+        int index = (int) (offset / WINDOW);
+        if (index >= windows.length) {
+            windows = Arrays.copyOf(windows, index + 1);
+        }
+        long start = index * WINDOW;
+        MappedByteBuffer window = windows[index];
+        if (window == null || window.capacity() < FULL_WINDOW && end - start >= FULL_WINDOW) {
+            window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(FULL_WINDOW, end - start));
+            windows[index] = window;
+        }
+        return window;
+    }
+
+    /**
+     * @param offset Start of a complete message record
+     * @return A buffer holding the record from its position() on
+     * @throws IOException If the record is damaged; records covered by a
+     *         checkpoint are not re-read on open, so this is where it shows
+     */
+    private ByteBuffer record(long offset) throws IOException {
+        MappedByteBuffer window = windowFor(offset);
+        int at = (int) (offset % WINDOW);
+        ByteBuffer record;
+        if (at + RECORD_HEADER <= window.capacity()
+                && at + RECORD_HEADER + (long) window.getInt(at) <= window.capacity()) {
+            record = window.duplicate().position(at);
+        } else {
+            // Appended after the window was mapped
+            ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER);
+            readFully(header, offset);
+            int length = header.getInt(0);
+            if (length < MESSAGE_FIXED || length > MAX_RECORD) {
+                throw new IOException("Corrupt record at offset " + offset + " of " + file);
+            }
+            record = ByteBuffer.allocate(RECORD_HEADER + length);
+            readFully(record, offset);
+            record.position(0);
+        }
+        int length = record.getInt(record.position());
+        if (length < MESSAGE_FIXED || length > MAX_RECORD
+                || record.get(record.position() + RECORD_HEADER) != TYPE_MESSAGE) {
+            throw new IOException("Corrupt record at offset " + offset + " of " + file);
+        }
+        return record;
+    }
+
+    private void readFully(ByteBuffer buffer, long offset) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of " + file + " at offset " + offset);
+            }
+        }
+    }
+
+    /**
+     * Validates the header, rebuilds the symbol table and indexes, and cuts
+     * off any torn or corrupt tail
+     * @throws IOException If a record before the verified tail is damaged
+     */
+    private void recover() throws IOException {
+        long size = channel.size();
+        if (size < FILE_HEADER) {
+            ByteBuffer header = ByteBuffer.allocate(FILE_HEADER).putInt(MAGIC).putShort(VERSION).putShort((short) 0);
+            header.flip();
+            channel.truncate(0);
+            channel.write(header, 0);
+            end = FILE_HEADER;
+            return;
+        }
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER);
+        channel.read(header, 0);
+        if (header.getInt(0) != MAGIC || header.getShort(4) != VERSION) {
+            throw new IOException("Not a message store (or unsupported version): " + file);
+        }
+
+        end = size;
+        long position = readCheckpoint(size);
+        long verifyFrom = Math.max(position, size - VERIFY_TAIL);
+        while (position < size) {
+            if (size - position < RECORD_HEADER) {
+                break;
+            }
+            ByteBuffer window = windowFor(position);
+            int at = (int) (position % WINDOW);
+            int length = window.getInt(at);
+            if (length <= 0 || length > MAX_RECORD || size - position - RECORD_HEADER < length) {
+                break;
+            }
+            int body = at + RECORD_HEADER;
+            if (position >= verifyFrom) {
+                crc.reset();
+                crc.update(window.slice(body, length));
+                if ((int) crc.getValue() != window.getInt(at + 4)) {
+                    break;
+                }
+            }
+            byte type = window.get(body);
+            if (type == TYPE_NAME && length >= 5) {
+                byte[] name = new byte[length - 5];
+                window.slice(body + 5, name.length).get(name);
+                addSymbol(window.getInt(body + 1), new String(name, StandardCharsets.UTF_8));
+            } else if (type == TYPE_MESSAGE && length >= MESSAGE_FIXED) {
+                index(position, window.getLong(body + 1), window.getInt(body + 9), window.getInt(body + 13));
+            } else {
+                break;
+            }
+            position += RECORD_HEADER + length;
+        }
+
+        if (position < size) {
+            if (position < verifyFrom) {
+                // Not a torn append; truncating here would throw away every record after it
+                throw new IOException("Corrupt record at offset " + position + " of " + file + ", "
+                    + (size - position) + " bytes before the end");
+            }
+            System.err.println("[STORE] Truncating " + (size - position) + " damaged bytes at the end of " + file);
+            windows = new MappedByteBuffer[0];
+            channel.truncate(position);
+        }
+        end = position;
+    }
+
+    private Path checkpointFile() {
+        return file.resolveSibling(file.getFileName() + ".idx");
+    }
+
+    /**
+     * Writes the symbol table and indexes, covering the file up to end
+     * Layout: magic, store version, covered end, CRC of the last bytes before
+     * it, symbols, offsets, timestamps, sender and receiver postings, and a
+     * CRC of everything before it. Written to a temporary file and moved
+     * into place, so a crash leaves the old checkpoint or none.
+     */
+    private void writeCheckpoint() throws IOException {
+        Path target = checkpointFile();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        CRC32 sum = new CRC32();
+        try (DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temp), 64 * 1024), sum))) {
+            out.writeInt(CHECKPOINT_MAGIC);
+            out.writeShort(VERSION);
+            out.writeShort(0);
+            out.writeLong(end);
+            out.writeInt(tailCrc(end));
+            out.writeInt(symbols.size());
+            for (String symbol : symbols) {
+                byte[] bytes = symbol.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+            out.writeInt(count);
+            out.writeBoolean(timeOrdered);
+            for (int i = 0; i < count; i++) {
+                out.writeLong(offsets[i]);
+            }
+            for (int i = 0; i < count; i++) {
+                out.writeLong(timestamps[i]);
+            }
+            writePostings(out, bySender);
+            writePostings(out, byReceiver);
+            out.flush();
+            out.writeInt((int) sum.getValue());
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writePostings(DataOutputStream out, List<IntList> index) throws IOException {
+        out.writeInt(index.size());
+        for (IntList list : index) {
+            int size = list == null ? 0 : list.size;
+            out.writeInt(size);
+            for (int i = 0; i < size; i++) {
+                out.writeInt(list.values[i]);
+            }
+        }
+    }
+
+    /**
+     * Loads the checkpoint if it is intact and the store still holds the
+     * bytes it covers
+     * @param size Current store size
+     * @return Offset to resume the record scan from
+     */
+    private long readCheckpoint(long size) throws IOException {
+        ByteBuffer in;
+        try (FileChannel checkpoint = FileChannel.open(checkpointFile(), StandardOpenOption.READ)) {
+            long length = checkpoint.size();
+            if (length < 28 || length > Integer.MAX_VALUE) {
+                return FILE_HEADER;
+            }
+            in = checkpoint.map(FileChannel.MapMode.READ_ONLY, 0, length);
+        } catch (NoSuchFileException e) {
+            return FILE_HEADER;
+        }
+        int stored = in.getInt(in.limit() - 4);
+        crc.reset();
+        crc.update(in.slice(0, in.limit() - 4));
+        if ((int) crc.getValue() != stored || in.getInt() != CHECKPOINT_MAGIC || in.getShort() != VERSION) {
+            return FILE_HEADER;
+        }
+        in.getShort();
+        long covered = in.getLong();
+        if (covered < FILE_HEADER || covered > size || in.getInt() != tailCrc(covered)) {
+            return FILE_HEADER;
+        }
+        try {
+            int symbolCount = in.getInt();
+            for (int id = 0; id < symbolCount; id++) {
+                byte[] bytes = new byte[in.getInt()];
+                in.get(bytes);
+                addSymbol(id, new String(bytes, StandardCharsets.UTF_8));
+            }
+            count = in.getInt();
+            timeOrdered = in.get() != 0;
+            offsets = new long[Math.max(1024, count)];
+            timestamps = new long[offsets.length];
+            in.asLongBuffer().get(offsets, 0, count);
+            in.position(in.position() + count * 8);
+            in.asLongBuffer().get(timestamps, 0, count);
+            in.position(in.position() + count * 8);
+            readPostings(in, bySender);
+            readPostings(in, byReceiver);
+            return covered;
+        } catch (RuntimeException e) {
+            // Intact but inconsistent: fall back to a full scan
+            symbols.clear();
+            symbolIds.clear();
+            bySender.clear();
+            byReceiver.clear();
+            offsets = new long[1024];
+            timestamps = new long[1024];
+            count = 0;
+            timeOrdered = true;
+            return FILE_HEADER;
+        }
+    }
+
+    private static void readPostings(ByteBuffer in, List<IntList> index) {
+        int lists = in.getInt();
+        for (int id = 0; id < lists; id++) {
+            int size = in.getInt();
+            if (size == 0) {
+                index.add(null);
+                continue;
+            }
+            IntList list = new IntList(size);
+            in.asIntBuffer().get(list.values, 0, size);
+            in.position(in.position() + size * 4);
+            list.size = size;
+            index.add(list);
+        }
+    }
+
+    /**
+     * @return CRC of up to CHECKPOINT_TAIL store bytes before the given offset,
+     *         so a checkpoint is not applied to a store that was rewritten since
+     */
+    private int tailCrc(long upTo) throws IOException {
+        long from = Math.max(FILE_HEADER, upTo - CHECKPOINT_TAIL);
+        ByteBuffer tail = ByteBuffer.allocate((int) (upTo - from));
+        readFully(tail, from);
+        crc.reset();
+        crc.update(tail.flip());
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Growable list of primitive ints
+     */
+    private static final class IntList {
+        private int[] values;
+        private int size;
+
+        IntList() {
+            this(8);
+        }
+
+        IntList(int capacity) {
+            this.values = new int[capacity];
+        }
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
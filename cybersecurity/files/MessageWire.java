@@ -0,0 +1,267 @@
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Binary framing for messages sent between MessageClient and MessageServer
+ *
+ * Every frame is [int length][byte type][body], big-endian, where length
+ * counts the type byte and the body.
+ *   MESSAGE [long sequence][long epochMillis][byte flags][int keyEpoch]
+ *           [short n][sender utf-8][short n][receiver utf-8][short n][cipher name]
+ *           [content utf-8 up to the end of the frame]
+ *   ACK     [long sequence]
+ *
+ * The encoder writes straight into the caller's (direct) buffer and can
+ * encrypt the content in place right after encoding it. The decoder reuses
+ * Strings for names it has already seen, so a steady stream of messages only
+ * allocates the content String.
+ * Both are single-threaded; use one per connection.
+ *
+ * @author Cybersecurity Project
+ * @version 1.0
+ */
+final class MessageWire {
+
+    static final byte TYPE_MESSAGE = 1;
+    static final byte TYPE_ACK = 2;
+
+    /** Length prefix plus type byte */
+    static final int FRAME_HEADER = 5;
+    static final int ACK_FRAME = FRAME_HEADER + 8;
+    /** Largest frame accepted, length prefix included */
+    static final int MAX_FRAME = 1 << 20;
+
+    private static final byte FLAG_ENCRYPTED = 1;
+    private static final int MESSAGE_FIXED = 8 + 8 + 1 + 4;
+
+    private MessageWire() {
+    }
+
+    /**
+     * Writes an ACK frame
+     * @param out Buffer with at least ACK_FRAME bytes remaining
+     * @param sequence Sequence number being acknowledged
+     */
+    static void putAck(ByteBuffer out, long sequence) {
+        out.putInt(1 + 8).put(TYPE_ACK).putLong(sequence);
+    }
+
+    /**
+     * @param buffer Buffer in read mode
+     * @return Size of the complete frame at the buffer position, or -1 if more bytes are needed
+     * @throws IllegalStateException If the length prefix is out of range
+     */
+    static int completeFrame(ByteBuffer buffer) {
+        if (buffer.remaining() < 4) {
+            return -1;
+        }
+        int length = buffer.getInt(buffer.position());
+        if (length < 1 || length > MAX_FRAME - 4) {
+            throw new IllegalStateException("Bad frame length: " + length);
+        }
+        return buffer.remaining() >= 4 + length ? 4 + length : -1;
+    }
+
+    /**
+     * Writes MESSAGE frames
+     */
+    static final class Encoder {
+        private final Map<String, byte[]> names = new HashMap<>();
+        private final CharsetEncoder utf8 = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private final ZoneId zone = ZoneId.systemDefault();
+
+        /**
+         * Writes a message whose content is already in its final form
+         * @param out Target buffer in write mode
+         * @return False if the frame does not fit; the buffer is left unchanged
+         */
+        boolean put(ByteBuffer out, long sequence, CaesarCipherAdvanced.Message message) {
+            long millis = message.timestamp.atZone(zone).toInstant().toEpochMilli();
+            return put(out, sequence, millis, message.sender, message.receiver, message.content,
+                message.cipher, message.encrypted, message.keyEpoch, null);
+        }
+
+        /**
+         * Writes a message, encrypting the content in place after encoding it
+         * @param out Target buffer in write mode
+         * @param keyEpoch Session key epoch, 0 for fixed keys
+         * @param transform Encrypting transform, or null to send the content as is
+         * @return False if the frame does not fit; the buffer is left unchanged
+         */
+        boolean put(ByteBuffer out, long sequence, long epochMillis, String sender, String receiver,
+                    CharSequence content, CipherEngine cipher, boolean encrypted, int keyEpoch,
+                    CipherEngine.Transform transform) {
+            int start = out.position();
+            byte[] senderBytes = name(sender);
+            byte[] receiverBytes = name(receiver);
+            byte[] cipherBytes = name(cipher.name());
+            int fixed = 4 + 1 + MESSAGE_FIXED + 6 + senderBytes.length + receiverBytes.length + cipherBytes.length;
+            if (out.remaining() < fixed) {
+                return false;
+            }
+            out.position(start + 4);
+            out.put(TYPE_MESSAGE).putLong(sequence).putLong(epochMillis)
+               .put(encrypted || transform != null ? FLAG_ENCRYPTED : 0).putInt(keyEpoch);
+            putName(out, senderBytes);
+            putName(out, receiverBytes);
+            putName(out, cipherBytes);
+
+            int contentStart = out.position();
+            int limit = out.limit();
+            out.limit(Math.min(limit, start + MAX_FRAME));
+            utf8.reset();
+            CharBuffer chars = CharBuffer.wrap(content);
+            boolean fits = !utf8.encode(chars, out, true).isOverflow() && !utf8.flush(out).isOverflow();
+            out.limit(limit);
+            if (!fits) {
+                out.position(start);
+                return false;
+            }
+            int contentLength = out.position() - contentStart;
+            if (transform != null) {
+                transform.apply(out, contentStart, contentLength);
+            }
+            out.putInt(start, out.position() - start - 4);
+            return true;
+        }
+
+        /**
+         * @return Worst-case frame size for a message, for sizing buffers
+         */
+        int maxFrameSize(String sender, String receiver, CharSequence content, CipherEngine cipher) {
+            return 4 + 1 + MESSAGE_FIXED + 6 + name(sender).length + name(receiver).length
+                + name(cipher.name()).length + (int) Math.ceil(content.length() * utf8.maxBytesPerChar());
+        }
+
+        private byte[] name(String name) {
+            byte[] bytes = names.get(name);
+            if (bytes == null) {
+                bytes = name.getBytes(StandardCharsets.UTF_8);
+                if (bytes.length > Short.MAX_VALUE) {
+                    throw new IllegalArgumentException("Name too long: " + name.length() + " chars");
+                }
+                names.put(name, bytes);
+            }
+            return bytes;
+        }
+
+        private static void putName(ByteBuffer out, byte[] bytes) {
+            out.putShort((short) bytes.length).put(bytes);
+        }
+    }
+
+    /**
+     * Reads MESSAGE frames back into Message objects
+     */
+    static final class Decoder {
+        private static final int NAME_CACHE = 16;
+        private static final int ENGINE_CACHE = 16;
+        // Longer than any cipher name this side would send
+        private static final int MAX_CIPHER_NAME = 64;
+
+        private final byte[][] cachedBytes = new byte[NAME_CACHE][];
+        private final String[] cachedNames = new String[NAME_CACHE];
+        private final Map<String, CipherEngine> engines = new HashMap<>();
+        private final ZoneId zone = ZoneId.systemDefault();
+        private byte[] scratch = new byte[4096];
+        private long lastSequence;
+
+        /**
+         * Decodes the MESSAGE frame at the buffer position and moves past it
+         * @param in Buffer in read mode holding a complete frame
+         * @return The message
+         */
+        CaesarCipherAdvanced.Message message(ByteBuffer in) {
+            int end = in.position() + 4 + in.getInt();
+            if (in.get() != TYPE_MESSAGE) {
+                throw new IllegalStateException("Not a message frame");
+            }
+            lastSequence = in.getLong();
+            long millis = in.getLong();
+            boolean encrypted = (in.get() & FLAG_ENCRYPTED) != 0;
+            int keyEpoch = in.getInt();
+            String sender = name(in);
+            String receiver = name(in);
+            String cipher = name(in);
+            int length = end - in.position();
+            String content = new String(bytes(in, length), 0, length, StandardCharsets.UTF_8);
+
+            CaesarCipherAdvanced.Message message = new CaesarCipherAdvanced.Message(sender, receiver, content,
+                engine(cipher), encrypted);
+            message.timestamp = LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), zone);
+            message.keyEpoch = keyEpoch;
+            return message;
+        }
+
+        /**
+         * @return Sequence number of the last decoded message
+         */
+        long lastSequence() {
+            return lastSequence;
+        }
+
+        /**
+         * Resolves a cipher name sent by the peer. The name is checked before
+         * it reaches CipherEngines, and at most ENGINE_CACHE engines are kept
+         * per connection, so a peer cycling through names cannot grow the heap.
+         */
+        private CipherEngine engine(String cipher) {
+            CipherEngine engine = engines.get(cipher);
+            if (engine == null) {
+                if (cipher.isEmpty() || cipher.length() > MAX_CIPHER_NAME) {
+                    throw new IllegalArgumentException("Bad cipher name length: " + cipher.length());
+                }
+                for (int i = 0; i < cipher.length(); i++) {
+                    char c = cipher.charAt(i);
+                    if (!(c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z' || c >= '0' && c <= '9' || c == '-')) {
+                        throw new IllegalArgumentException("Bad character in cipher name: " + (int) c);
+                    }
+                }
+                engine = CipherEngines.forName(cipher);
+                if (engines.size() >= ENGINE_CACHE) {
+                    engines.clear();
+                }
+                engines.put(cipher, engine);
+            }
+            return engine;
+        }
+
+        private String name(ByteBuffer in) {
+            int length = in.getShort() & 0xFFFF;
+            byte[] bytes = bytes(in, length);
+            int hash = 1;
+            for (int i = 0; i < length; i++) {
+                hash = 31 * hash + bytes[i];
+            }
+            int slot = hash & (NAME_CACHE - 1);
+            byte[] cached = cachedBytes[slot];
+            if (cached != null && cached.length == length
+                    && Arrays.equals(cached, 0, length, bytes, 0, length)) {
+                return cachedNames[slot];
+            }
+            String name = new String(bytes, 0, length, StandardCharsets.UTF_8);
+            cachedBytes[slot] = Arrays.copyOf(bytes, length);
+            cachedNames[slot] = name;
+            return name;
+        }
+
+        private byte[] bytes(ByteBuffer in, int length) {
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            in.get(scratch, 0, length);
+            return scratch;
+        }
+    }
+}
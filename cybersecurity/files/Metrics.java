@@ -0,0 +1,316 @@
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Process-wide counters and latency histograms
+ * Covers cipher operations, the communication channel, the message log
+ * writer and file encryption. Counters are LongAdders, and timings go into
+ * LatencyHistograms in nanoseconds. Recording never allocates.
+ * The numbers can be read three ways: snapshot(), JMX through
+ * registerMBean(), or a Reporter called on a schedule.
+ *
+ * -Dcipher.metrics=false turns recording into no-ops that the JIT removes.
+ * -Dcipher.quiet=true (or setQuiet) silences the per-operation console
+ * messages such as "[CHANNEL] Message transmitted successfully!". On a busy
+ * channel, the printf calls behind those cost more than the work itself.
+ *
+ * @author Cybersecurity Project
+ * @version 1.0
+ */
+public final class Metrics implements MetricsMXBean {
+
+    /** Whether recording is compiled in; read once at startup */
+    public static final boolean ENABLED = !"false".equalsIgnoreCase(System.getProperty("cipher.metrics"));
+
+    private static final String OBJECT_NAME = "cybersecurity:type=Metrics";
+    private static final Metrics INSTANCE = new Metrics();
+
+    /**
+     * Receives periodic snapshots
+     */
+    public interface Reporter {
+        void report(Map<String, Long> snapshot);
+    }
+
+    private volatile boolean quiet = Boolean.getBoolean("cipher.quiet");
+
+    private final LongAdder encryptOps = new LongAdder();
+    private final LongAdder encryptBytes = new LongAdder();
+    private final LatencyHistogram encryptNanos = new LatencyHistogram();
+    private final LongAdder decryptOps = new LongAdder();
+    private final LongAdder decryptBytes = new LongAdder();
+    private final LatencyHistogram decryptNanos = new LatencyHistogram();
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LatencyHistogram sendNanos = new LatencyHistogram();
+    private final LatencyHistogram mailboxDepth = new LatencyHistogram();
+
+    private final LongAdder logBatches = new LongAdder();
+    private final LongAdder logBytes = new LongAdder();
+    private final LatencyHistogram logBatchRecords = new LatencyHistogram();
+    private final LatencyHistogram fsyncNanos = new LatencyHistogram();
+
+    private final LongAdder fileOps = new LongAdder();
+    private final LongAdder fileBytes = new LongAdder();
+    private final LatencyHistogram fileNanos = new LatencyHistogram();
+
+    private ScheduledExecutorService scheduler;
+
+    private Metrics() {
+    }
+
+    /**
+     * @return The process-wide instance
+     */
+    public static Metrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registers the instance with the platform MBean server; safe to call more than once
+     */
+    public static void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(INSTANCE, name);
+            }
+        } catch (JMException e) {
+            System.err.println("Error registering metrics MBean: " + e.getMessage());
+        }
+    }
+
+    // Recording
+
+    public void recordEncrypt(long bytes, long nanos) {
+        if (ENABLED) {
+            encryptOps.increment();
+            encryptBytes.add(bytes);
+            encryptNanos.record(nanos);
+        }
+    }
+
+    public void recordDecrypt(long bytes, long nanos) {
+        if (ENABLED) {
+            decryptOps.increment();
+            decryptBytes.add(bytes);
+            decryptNanos.record(nanos);
+        }
+    }
+
+    /**
+     * @param nanos Time spent in sendMessage
+     * @param depth Receiver's mailbox size after delivery
+     */
+    public void recordSend(long nanos, int depth) {
+        if (ENABLED) {
+            sent.increment();
+            sendNanos.record(nanos);
+            mailboxDepth.record(depth);
+        }
+    }
+
+    public void recordReceive() {
+        if (ENABLED) {
+            received.increment();
+        }
+    }
+
+    public void recordDrop() {
+        if (ENABLED) {
+            dropped.increment();
+        }
+    }
+
+    public void recordReject() {
+        if (ENABLED) {
+            rejected.increment();
+        }
+    }
+
+    public void recordLogBatch(int records, long bytes) {
+        if (ENABLED) {
+            logBatches.increment();
+            logBytes.add(bytes);
+            logBatchRecords.record(records);
+        }
+    }
+
+    public void recordFsync(long nanos) {
+        if (ENABLED) {
+            fsyncNanos.record(nanos);
+        }
+    }
+
+    public void recordFile(long bytes, long nanos) {
+        if (ENABLED) {
+            fileOps.increment();
+            fileBytes.add(bytes);
+            fileNanos.record(nanos);
+        }
+    }
+
+    // Reading
+
+    @Override
+    public long getEncryptOps() {
+        return encryptOps.sum();
+    }
+
+    @Override
+    public long getEncryptBytes() {
+        return encryptBytes.sum();
+    }
+
+    @Override
+    public long getDecryptOps() {
+        return decryptOps.sum();
+    }
+
+    @Override
+    public long getDecryptBytes() {
+        return decryptBytes.sum();
+    }
+
+    @Override
+    public long getMessagesSent() {
+        return sent.sum();
+    }
+
+    @Override
+    public long getMessagesReceived() {
+        return received.sum();
+    }
+
+    @Override
+    public long getMessagesDropped() {
+        return dropped.sum();
+    }
+
+    @Override
+    public long getMessagesRejected() {
+        return rejected.sum();
+    }
+
+    @Override
+    public long getLogBatches() {
+        return logBatches.sum();
+    }
+
+    @Override
+    public long getLogBytes() {
+        return logBytes.sum();
+    }
+
+    @Override
+    public long getFileOps() {
+        return fileOps.sum();
+    }
+
+    @Override
+    public long getFileBytes() {
+        return fileBytes.sum();
+    }
+
+    @Override
+    public Map<String, Long> getSnapshot() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        snapshot.put("cipher.encrypt.ops", getEncryptOps());
+        snapshot.put("cipher.encrypt.bytes", getEncryptBytes());
+        putHistogram(snapshot, "cipher.encrypt.nanos", encryptNanos);
+        snapshot.put("cipher.decrypt.ops", getDecryptOps());
+        snapshot.put("cipher.decrypt.bytes", getDecryptBytes());
+        putHistogram(snapshot, "cipher.decrypt.nanos", decryptNanos);
+        snapshot.put("channel.sent", getMessagesSent());
+        snapshot.put("channel.received", getMessagesReceived());
+        snapshot.put("channel.dropped", getMessagesDropped());
+        snapshot.put("channel.rejected", getMessagesRejected());
+        putHistogram(snapshot, "channel.send.nanos", sendNanos);
+        putHistogram(snapshot, "channel.mailbox.depth", mailboxDepth);
+        snapshot.put("log.batches", getLogBatches());
+        snapshot.put("log.bytes", getLogBytes());
+        putHistogram(snapshot, "log.batch.records", logBatchRecords);
+        putHistogram(snapshot, "log.fsync.nanos", fsyncNanos);
+        snapshot.put("file.ops", getFileOps());
+        snapshot.put("file.bytes", getFileBytes());
+        putHistogram(snapshot, "file.nanos", fileNanos);
+        return snapshot;
+    }
+
+    @Override
+    public boolean isQuiet() {
+        return quiet;
+    }
+
+    @Override
+    public void setQuiet(boolean quiet) {
+        this.quiet = quiet;
+    }
+
+    @Override
+    public void reset() {
+        for (LongAdder counter : new LongAdder[] {encryptOps, encryptBytes, decryptOps, decryptBytes,
+                sent, received, dropped, rejected, logBatches, logBytes, fileOps, fileBytes}) {
+            counter.reset();
+        }
+        for (LatencyHistogram histogram : new LatencyHistogram[] {encryptNanos, decryptNanos, sendNanos,
+                mailboxDepth, logBatchRecords, fsyncNanos, fileNanos}) {
+            histogram.reset();
+        }
+    }
+
+    /**
+     * Calls a reporter with a fresh snapshot at a fixed rate on a daemon thread
+     * @param reporter Receives the snapshots
+     * @param period Time between reports
+     * @param unit Unit of the period
+     * @return Handle to cancel the reports
+     */
+    public synchronized ScheduledFuture<?> startReporting(Reporter reporter, long period, TimeUnit unit) {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "metrics-reporter");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return scheduler.scheduleAtFixedRate(() -> reporter.report(getSnapshot()), period, period, unit);
+    }
+
+    /**
+     * @param out Where to print
+     * @return A reporter that prints each snapshot as one line of name=value pairs, skipping zeros
+     */
+    public static Reporter printReporter(PrintStream out) {
+        return snapshot -> {
+            StringBuilder line = new StringBuilder("[METRICS]");
+            for (Map.Entry<String, Long> entry : snapshot.entrySet()) {
+                if (entry.getValue() != 0) {
+                    line.append(' ').append(entry.getKey()).append('=').append(entry.getValue());
+                }
+            }
+            out.println(line);
+        };
+    }
+
+    private static void putHistogram(Map<String, Long> snapshot, String name, LatencyHistogram histogram) {
+        snapshot.put(name + ".p50", histogram.percentile(50));
+        snapshot.put(name + ".p99", histogram.percentile(99));
+        snapshot.put(name + ".p999", histogram.percentile(99.9));
+        snapshot.put(name + ".max", histogram.max());
+    }
+}
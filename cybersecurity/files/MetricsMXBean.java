@@ -0,0 +1,45 @@
+import java.util.Map;
+
+/**
+ * JMX view of Metrics, registered as "cybersecurity:type=Metrics"
+ *
+ * @author Cybersecurity Project
+ * @version 1.0
+ */
+public interface MetricsMXBean {
+
+    long getEncryptOps();
+
+    long getEncryptBytes();
+
+    long getDecryptOps();
+
+    long getDecryptBytes();
+
+    long getMessagesSent();
+
+    long getMessagesReceived();
+
+    long getMessagesDropped();
+
+    long getMessagesRejected();
+
+    long getLogBatches();
+
+    long getLogBytes();
+
+    long getFileOps();
+
+    long getFileBytes();
+
+    /**
+     * @return Every counter, plus p50/p99/p99.9/max for every histogram, by dotted name
+     */
+    Map<String, Long> getSnapshot();
+
+    boolean isQuiet();
+
+    void setQuiet(boolean quiet);
+
+    void reset();
+}
@@ -0,0 +1,322 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Quadgram and dictionary scoring for short ciphertexts
+ * Letter frequencies say little about a 25-letter message: "Abort mission
+ * immediately" has no E at all. This scorer rates a candidate plaintext by
+ * the likelihood of its quadgrams and letters, and gives a bonus to every
+ * letter that belongs to a dictionary word.
+ *
+ * The quadgram table is a float[27^4] over A-Z plus a word-boundary symbol,
+ * so " at " and " the" are ordinary quadgrams and short words count too.
+ * The table and the dictionary are built from a bundled word list,
+ * english_words.txt, loaded from the classpath. Each word is weighted by
+ * its rank (Zipf). The dictionary is a trie held in one int[] of child
+ * links plus a boolean[] of word ends.
+ *
+ * Scores follow CaesarCracker's convention: lower is better, and a score is
+ * -2 ln(likelihood) minus the dictionary bonus. CaesarCracker.confidence
+ * accepts it, but the bonus makes the result a relative figure, not a
+ * calibrated probability.
+ * scoreShifts() encodes the ciphertext once into a reused symbol buffer and
+ * rates all 26 shifts from it. It never builds the 26 candidate Strings.
+ *
+ * Instances are immutable and thread-safe.
+ *
+ * @author Cybersecurity Project
+ * @version 1.0
+ */
+public final class NgramScorer {
+
+    /** Classpath resource holding the default word list */
+    public static final String DEFAULT_WORDS = "/english_words.txt";
+
+    // 26 letters plus one symbol for any run of non-letters
+    private static final int SYMBOLS = 27;
+    private static final int BOUNDARY = 26;
+    private static final int QUADGRAMS = SYMBOLS * SYMBOLS * SYMBOLS * SYMBOLS;
+
+    // Score taken off for each letter of a recognised dictionary word
+    private static final float WORD_BONUS = 4.0f;
+
+    // SHIFTED[s][symbol] decrypts a symbol with shift s; the boundary maps to itself
+    private static final byte[][] SHIFTED = new byte[26][SYMBOLS];
+
+    static {
+        for (int s = 0; s < 26; s++) {
+            for (int c = 0; c < 26; c++) {
+                SHIFTED[s][c] = (byte) ((c - s + 26) % 26);
+            }
+            SHIFTED[s][BOUNDARY] = BOUNDARY;
+        }
+    }
+
+    // -2 ln p of each plaintext letter, breaking ties where every quadgram is unseen
+    private static final float[] UNIGRAMS = new float[SYMBOLS];
+
+    static {
+        for (int c = 0; c < 26; c++) {
+            UNIGRAMS[c] = (float) (-2 * Math.log(CaesarCracker.ENGLISH_FREQUENCIES[c]));
+        }
+    }
+
+    private static final ThreadLocal<Symbols> SYMBOLS_BUFFER = ThreadLocal.withInitial(Symbols::new);
+
+    private final float[] quadgrams;
+    private final int[] children;
+    private final boolean[] wordEnd;
+    private final int words;
+
+    private NgramScorer(float[] quadgrams, int[] children, boolean[] wordEnd, int words) {
+        this.quadgrams = quadgrams;
+        this.children = children;
+        this.wordEnd = wordEnd;
+        this.words = words;
+    }
+
+    /**
+     * Holder so the bundled list is only read on first use
+     */
+    private static final class English {
+        static final NgramScorer INSTANCE;
+
+        static {
+            try (InputStream in = NgramScorer.class.getResourceAsStream(DEFAULT_WORDS)) {
+                if (in == null) {
+                    throw new IllegalStateException("Word list not found on the classpath: " + DEFAULT_WORDS);
+                }
+                INSTANCE = load(in);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * @return The scorer built from the bundled English word list
+     */
+    public static NgramScorer english() {
+        return English.INSTANCE;
+    }
+
+    /**
+     * Builds a scorer from a word list file
+     * @param file One word per line, most frequent first; # starts a comment
+     * @return A new scorer
+     * @throws IOException If the file cannot be read
+     */
+    public static NgramScorer load(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return load(in);
+        }
+    }
+
+    /**
+     * Builds a scorer from a word list stream; the stream is not closed
+     * @param in UTF-8 text, one word per line, most frequent first; # starts a comment
+     * @return A new scorer
+     * @throws IOException If reading fails
+     */
+    public static NgramScorer load(InputStream in) throws IOException {
+        // Keep the first (best) rank of each word; lines with anything but letters are skipped
+        Map<String, Integer> ranks = new LinkedHashMap<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String word = line.trim().toLowerCase(Locale.ROOT);
+            if (word.isEmpty() || word.startsWith("#") || !word.chars().allMatch(c -> c >= 'a' && c <= 'z')) {
+                continue;
+            }
+            ranks.putIfAbsent(word, ranks.size() + 1);
+        }
+        if (ranks.isEmpty()) {
+            throw new IOException("Word list is empty");
+        }
+
+        double[] counts = new double[QUADGRAMS];
+        double total = 0;
+        int nodes = 1;
+        for (String word : ranks.keySet()) {
+            nodes += word.length();
+        }
+        int[] children = new int[nodes * 26];
+        boolean[] wordEnd = new boolean[nodes];
+        int used = 1;
+
+        for (Map.Entry<String, Integer> entry : ranks.entrySet()) {
+            String word = entry.getKey();
+            double weight = 1.0 / entry.getValue();
+            // Quadgrams of " word ", so boundaries are part of the model
+            int index = BOUNDARY;
+            for (int i = 0; i <= word.length(); i++) {
+                int symbol = i < word.length() ? word.charAt(i) - 'a' : BOUNDARY;
+                index = (index % (SYMBOLS * SYMBOLS * SYMBOLS)) * SYMBOLS + symbol;
+                if (i >= 2) {
+                    counts[index] += weight;
+                    total += weight;
+                }
+            }
+
+            int node = 0;
+            for (int i = 0; i < word.length(); i++) {
+                int slot = node * 26 + word.charAt(i) - 'a';
+                if (children[slot] == 0) {
+                    children[slot] = used++;
+                }
+                node = children[slot];
+            }
+            wordEnd[node] = true;
+        }
+
+        float[] quadgrams = new float[QUADGRAMS];
+        float floor = (float) (-2 * Math.log(0.01 / total));
+        for (int i = 0; i < QUADGRAMS; i++) {
+            quadgrams[i] = counts[i] == 0 ? floor : (float) (-2 * Math.log(counts[i] / total));
+        }
+        return new NgramScorer(quadgrams, Arrays.copyOf(children, used * 26), Arrays.copyOf(wordEnd, used),
+            ranks.size());
+    }
+
+    /**
+     * @return Number of words in the dictionary
+     */
+    public int words() {
+        return words;
+    }
+
+    /**
+     * @param word Letters only, either case
+     * @return Whether the word is in the dictionary
+     */
+    public boolean isWord(CharSequence word) {
+        int node = 0;
+        for (int i = 0; i < word.length(); i++) {
+            int slot = LetterHistogram.slot(word.charAt(i));
+            if (slot == BOUNDARY) {
+                return false;
+            }
+            node = children[node * 26 + slot];
+            if (node == 0) {
+                return false;
+            }
+        }
+        return word.length() > 0 && wordEnd[node];
+    }
+
+    /**
+     * Scores one candidate plaintext
+     * @param plaintext The text to rate
+     * @return -2 ln(likelihood) minus the dictionary bonus; lower is more English-like
+     */
+    public double score(CharSequence plaintext) {
+        Symbols symbols = encode(plaintext);
+        return score(symbols.data, symbols.length, SHIFTED[0]);
+    }
+
+    /**
+     * Scores all 26 shifts of a ciphertext into a caller-owned array
+     * @param ciphertext The encrypted message
+     * @param scores Array of 26 slots receiving the score per encryption shift, lower is better
+     * @return The shift with the lowest score
+     */
+    public int scoreShifts(CharSequence ciphertext, double[] scores) {
+        Symbols symbols = encode(ciphertext);
+        int best = 0;
+        for (int shift = 0; shift < 26; shift++) {
+            scores[shift] = score(symbols.data, symbols.length, SHIFTED[shift]);
+            if (scores[shift] < scores[best]) {
+                best = shift;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @param ciphertext The encrypted message
+     * @return The most likely encryption shift
+     */
+    public int crack(CharSequence ciphertext) {
+        return scoreShifts(ciphertext, new double[26]);
+    }
+
+    private double score(byte[] symbols, int length, byte[] shift) {
+        float[] table = quadgrams;
+        double cost = 0;
+        // The three symbols before the current one, oldest first
+        int first = BOUNDARY;
+        int second = length > 1 ? shift[symbols[1]] : BOUNDARY;
+        int third = length > 2 ? shift[symbols[2]] : BOUNDARY;
+        int node = 0;
+        int wordLength = 0;
+        for (int i = 1; i < length; i++) {
+            int symbol = shift[symbols[i]];
+            cost += UNIGRAMS[symbol];
+            if (i >= 3) {
+                cost += table[((first * SYMBOLS + second) * SYMBOLS + third) * SYMBOLS + symbol];
+                first = second;
+                second = third;
+                third = symbol;
+            }
+            if (symbol == BOUNDARY) {
+                if (node > 0 && wordEnd[node]) {
+                    cost -= WORD_BONUS * wordLength;
+                }
+                node = 0;
+                wordLength = 0;
+            } else {
+                wordLength++;
+                if (node >= 0) {
+                    node = children[node * 26 + symbol];
+                    if (node == 0) {
+                        node = -1;
+                    }
+                }
+            }
+        }
+        return cost;
+    }
+
+    /**
+     * Encodes text as boundary-framed symbols into this thread's buffer
+     * Every run of non-letters collapses into one boundary symbol.
+     */
+    private static Symbols encode(CharSequence text) {
+        Symbols encoded = SYMBOLS_BUFFER.get();
+        if (encoded.data.length < text.length() + 2) {
+            encoded.data = new byte[Math.max(text.length() + 2, encoded.data.length * 2)];
+        }
+        byte[] symbols = encoded.data;
+        int n = 0;
+        symbols[n++] = BOUNDARY;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            int slot = LetterHistogram.slot(text.charAt(i));
+            if (slot != BOUNDARY || symbols[n - 1] != BOUNDARY) {
+                symbols[n++] = (byte) slot;
+            }
+        }
+        if (symbols[n - 1] != BOUNDARY) {
+            symbols[n++] = BOUNDARY;
+        }
+        encoded.length = n;
+        return encoded;
+    }
+
+    /**
+     * Per-thread symbol buffer, grown on demand and reused
+     */
+    private static final class Symbols {
+        byte[] data = new byte[256];
+        int length;
+    }
+}
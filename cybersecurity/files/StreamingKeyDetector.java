@@ -0,0 +1,393 @@
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Incremental Caesar key detection for long-running ciphertext streams
+ * Keeps two letter histograms: one over everything seen so far and one over
+ * a sliding window of the most recent letters. Both update in O(1) per
+ * letter. The window is kept in a ring of letter indexes, so the letter
+ * that falls out can be subtracted again.
+ *
+ * The 26 shifts are re-scored after every letter without re-reading the
+ * window. CaesarCracker.chiSquared is S/N - 2N + N*sum(p), where S is the
+ * sum of count[c]^2 / p[c - shift]. When one count moves from k to k +/- 1,
+ * S changes by (2k +/- 1) / p for each shift. So each letter costs 26
+ * multiply-adds, and the best shift is simply the smallest S.
+ *
+ * The detector raises a KeyChange when a new shift becomes the window's
+ * best and stays best for confirmLetters letters, and only if its
+ * confidence is at least minConfidence. The first detection is a KeyChange
+ * from -1.
+ *
+ * Not thread-safe: feed it from one thread. Listeners run on that thread.
+ *
+ * @author Cybersecurity Project
+ * @version 1.0
+ */
+public final class StreamingKeyDetector {
+
+    /** Default sliding window length, in letters */
+    public static final int DEFAULT_WINDOW = 1024;
+
+    // Retry interval for a confirmed shift whose confidence is still too low
+    private static final int CONFIDENCE_RETRY = 64;
+
+    /**
+     * Receives key changes as they are detected
+     */
+    public interface Listener {
+        void keyChanged(KeyChange change);
+    }
+
+    // CaesarCracker.INVERSE_FREQUENCIES transposed to [letter][shift], so one update is a contiguous row
+    private static final double[][] INVERSE_BY_LETTER = new double[26][26];
+
+    static {
+        for (int shift = 0; shift < 26; shift++) {
+            for (int c = 0; c < 26; c++) {
+                INVERSE_BY_LETTER[c][shift] = CaesarCracker.INVERSE_FREQUENCIES[shift][c];
+            }
+        }
+    }
+
+    private final int window;
+    private final int minLetters;
+    private final int confirmLetters;
+    private final double minConfidence;
+    private final List<Listener> listeners = new ArrayList<>();
+
+    private final long[] totalCounts = new long[26];
+    private final long[] windowCounts = new long[26];
+    private final double[] windowSums = new double[26];
+    private final double[] scores = new double[26];
+    private final byte[] ring;
+    private int head;
+    private int windowSize;
+    private int evictions;
+    private long letters;
+
+    private int currentShift = -1;
+    private int pendingShift = -1;
+    private int pendingLetters;
+    private long pendingSince;
+
+    /**
+     * Creates a detector with a 1024-letter window
+     */
+    public StreamingKeyDetector() {
+        this(DEFAULT_WINDOW);
+    }
+
+    /**
+     * Creates a detector that needs 100 letters for a first guess and a
+     * quarter of the window to confirm a change, at 99% confidence
+     * @param window Sliding window length, in letters
+     */
+    public StreamingKeyDetector(int window) {
+        this(window, Math.min(100, window), Math.max(1, window / 4), 0.99);
+    }
+
+    /**
+     * @param window Sliding window length, in letters
+     * @param minLetters Letters the window must hold before any key is reported
+     * @param confirmLetters Letters a new best shift must stay best for before it is reported
+     * @param minConfidence Confidence the new shift needs, 0.0-1.0
+     */
+    public StreamingKeyDetector(int window, int minLetters, int confirmLetters, double minConfidence) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("Window must be positive: " + window);
+        }
+        if (minLetters <= 0 || minLetters > window) {
+            throw new IllegalArgumentException("minLetters must be between 1 and the window: " + minLetters);
+        }
+        if (confirmLetters <= 0) {
+            throw new IllegalArgumentException("confirmLetters must be positive: " + confirmLetters);
+        }
+        if (!(minConfidence >= 0.0 && minConfidence <= 1.0)) {
+            throw new IllegalArgumentException("minConfidence must be between 0 and 1: " + minConfidence);
+        }
+        this.window = window;
+        this.minLetters = minLetters;
+        this.confirmLetters = confirmLetters;
+        this.minConfidence = minConfidence;
+        this.ring = new byte[window];
+    }
+
+    /**
+     * @param listener Called for every detected key change
+     */
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * @param listener A listener added earlier
+     */
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Feeds a whole text
+     * @param text The next piece of the stream
+     */
+    public void add(CharSequence text) {
+        add(text, 0, text.length());
+    }
+
+    /**
+     * Feeds a character range
+     * @param text The next piece of the stream
+     * @param start Index of the first character
+     * @param end Index after the last character
+     */
+    public void add(CharSequence text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            add(text.charAt(i));
+        }
+    }
+
+    /**
+     * Feeds a byte range (ASCII-compatible encodings)
+     * @param data The next piece of the stream
+     * @param offset Index of the first byte
+     * @param length Number of bytes
+     */
+    public void add(byte[] data, int offset, int length) {
+        for (int i = offset, end = offset + length; i < end; i++) {
+            add(data[i] & 0xFF);
+        }
+    }
+
+    /**
+     * Feeds the bytes between a buffer's position and limit
+     * The buffer's position is left untouched.
+     * @param buffer The next piece of the stream (heap or direct)
+     */
+    public void add(ByteBuffer buffer) {
+        for (int i = buffer.position(), end = buffer.limit(); i < end; i++) {
+            add(buffer.get(i) & 0xFF);
+        }
+    }
+
+    /**
+     * Feeds one character; anything but an ASCII letter is ignored
+     * @param c A character or unsigned byte value
+     */
+    public void add(int c) {
+        int slot = LetterHistogram.slot(c);
+        if (slot < 26) {
+            addLetter(slot);
+        }
+    }
+
+    private void addLetter(int letter) {
+        letters++;
+        totalCounts[letter]++;
+        if (windowSize == window) {
+            int evicted = ring[head];
+            if (evicted != letter) {
+                // k -> k-1 for the evicted letter, k -> k+1 for the new one, in one pass
+                long removed = 2 * windowCounts[evicted]-- - 1;
+                long added = 2 * windowCounts[letter]++ + 1;
+                double[] out = INVERSE_BY_LETTER[evicted];
+                double[] in = INVERSE_BY_LETTER[letter];
+                for (int shift = 0; shift < 26; shift++) {
+                    windowSums[shift] += added * in[shift] - removed * out[shift];
+                }
+            }
+            if (++evictions == window) {
+                evictions = 0;
+                recomputeSums();
+            }
+        } else {
+            windowSize++;
+            long added = 2 * windowCounts[letter]++ + 1;
+            double[] in = INVERSE_BY_LETTER[letter];
+            for (int shift = 0; shift < 26; shift++) {
+                windowSums[shift] += added * in[shift];
+            }
+        }
+        ring[head] = (byte) letter;
+        head = head + 1 == window ? 0 : head + 1;
+
+        if (windowSize >= minLetters) {
+            check();
+        }
+    }
+
+    /**
+     * Rebuilds the running sums from the window counts so rounding error cannot accumulate
+     */
+    private void recomputeSums() {
+        double[][] inverse = CaesarCracker.INVERSE_FREQUENCIES;
+        for (int shift = 0; shift < 26; shift++) {
+            double sum = 0;
+            for (int c = 0; c < 26; c++) {
+                double observed = windowCounts[c];
+                sum += observed * observed * inverse[shift][c];
+            }
+            windowSums[shift] = sum;
+        }
+    }
+
+    private void check() {
+        int best = windowBestShift();
+        if (best == currentShift) {
+            pendingShift = -1;
+            return;
+        }
+        if (best != pendingShift) {
+            pendingShift = best;
+            pendingLetters = 0;
+            pendingSince = letters;
+        }
+        pendingLetters++;
+        if (pendingLetters >= confirmLetters && (pendingLetters - confirmLetters) % CONFIDENCE_RETRY == 0) {
+            double confidence = windowConfidence(best);
+            if (confidence >= minConfidence) {
+                KeyChange change = new KeyChange(currentShift, best, confidence, pendingSince, letters);
+                currentShift = best;
+                pendingShift = -1;
+                for (Listener listener : listeners) {
+                    listener.keyChanged(change);
+                }
+            }
+        }
+    }
+
+    private double windowConfidence(int shift) {
+        double n = windowSize;
+        for (int s = 0; s < 26; s++) {
+            scores[s] = windowSums[s] / n - 2.0 * n + n * CaesarCracker.FREQUENCY_SUM;
+        }
+        return CaesarCracker.confidence(scores, shift);
+    }
+
+    /**
+     * @return The last reported shift, or -1 before the first detection
+     */
+    public int currentShift() {
+        return currentShift;
+    }
+
+    /**
+     * @return The best shift for the current window right now, reported or not
+     */
+    public int windowBestShift() {
+        int best = 0;
+        for (int shift = 1; shift < 26; shift++) {
+            if (windowSums[shift] < windowSums[best]) {
+                best = shift;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return Letters seen since creation or the last reset
+     */
+    public long letters() {
+        return letters;
+    }
+
+    /**
+     * @return Letters currently in the window
+     */
+    public int windowLetters() {
+        return windowSize;
+    }
+
+    /**
+     * @return All 26 shifts ranked over the window only
+     */
+    public CaesarCracker.Result window() {
+        return CaesarCracker.crack(windowCounts.clone());
+    }
+
+    /**
+     * @return All 26 shifts ranked over the whole stream
+     */
+    public CaesarCracker.Result overall() {
+        return CaesarCracker.crack(totalCounts.clone());
+    }
+
+    /**
+     * Forgets everything seen so far; listeners stay registered
+     */
+    public void reset() {
+        Arrays.fill(totalCounts, 0L);
+        Arrays.fill(windowCounts, 0L);
+        Arrays.fill(windowSums, 0.0);
+        head = 0;
+        windowSize = 0;
+        evictions = 0;
+        letters = 0;
+        currentShift = -1;
+        pendingShift = -1;
+        pendingLetters = 0;
+    }
+
+    /**
+     * One detected key change
+     */
+    public static final class KeyChange {
+        private final int previousShift;
+        private final int shift;
+        private final double confidence;
+        private final long firstSeen;
+        private final long detectedAt;
+
+        KeyChange(int previousShift, int shift, double confidence, long firstSeen, long detectedAt) {
+            this.previousShift = previousShift;
+            this.shift = shift;
+            this.confidence = confidence;
+            this.firstSeen = firstSeen;
+            this.detectedAt = detectedAt;
+        }
+
+        /**
+         * @return The shift reported before, or -1 for the first detection
+         */
+        public int previousShift() {
+            return previousShift;
+        }
+
+        /**
+         * @return The new encryption shift (0-25)
+         */
+        public int shift() {
+            return shift;
+        }
+
+        /**
+         * @return Confidence of the new shift over the window, 0.0-1.0
+         */
+        public double confidence() {
+            return confidence;
+        }
+
+        /**
+         * The real change happened some time before this, at most one window earlier
+         * @return Letter position where the new shift first led the window
+         */
+        public long firstSeen() {
+            return firstSeen;
+        }
+
+        /**
+         * @return Letter position where the change was confirmed
+         */
+        public long detectedAt() {
+            return detectedAt;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("KeyChange[%d -> %d, confidence=%.2f%%, letters %d-%d]",
+                previousShift, shift, confidence * 100, firstSeen, detectedAt);
+        }
+    }
+}
@@ -0,0 +1,332 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Key recovery for Vigenère ciphertexts
+ * Brute force needs 26^k tries for a k-letter key. This cracker treats the
+ * cipher as k interleaved Caesar ciphers instead:
+ *
+ * 1. The letters are extracted once into a byte[] of indexes 0-25, up to
+ *    sampleLetters of them. Non-letters are skipped because they do not
+ *    use up a key letter.
+ * 2. For every candidate length L, the letters are counted into L strided
+ *    histograms, column i % L, in one int[L * 26]. The index of coincidence
+ *    of each column is averaged. English gives about 0.066, random letters
+ *    about 0.038, and only the true length and its multiples look English.
+ * 3. Each column of each length is solved as a Caesar shift with
+ *    CaesarCracker.score.
+ *
+ * Each candidate length is a leaf task on the common fork-join pool, and
+ * the leaf does the counting and the column solving for that length. Only
+ * lengths with at least 20 letters per column are tried. Each is ranked by
+ * how far its coincidence exceeds random letters, divided by L^0.35. The
+ * coincidence gets noisier as columns get shorter, so a multiple 2k of the
+ * key length no longer wins by a lucky outlier, and a shorter length where
+ * only some columns line up still loses to k. A key that still repeats
+ * itself is cut to one period. Below 1000 letters, each key letter is
+ * then re-checked against the quadgram score of the whole decryption
+ * (NgramScorer).
+ *
+ * @author Cybersecurity Project
+ * @version 1.0
+ */
+public final class VigenereCracker {
+
+    /** Longest key length tried by default */
+    public static final int DEFAULT_MAX_KEY_LENGTH = 32;
+
+    /** Letters examined by default; plenty for any key up to the default length */
+    public static final int DEFAULT_SAMPLE_LETTERS = 1 << 16;
+
+    // Columns with fewer letters than this give coincidence values too noisy to rank
+    private static final int MIN_COLUMN_LETTERS = 20;
+
+    // Coincidence of uniformly random letters
+    private static final double RANDOM_COINCIDENCE = 1.0 / 26;
+
+    // The noise of an averaged coincidence grows with the number of columns,
+    // so each length's excess over random is divided by L^0.35
+    private static final double LENGTH_PENALTY = 0.35;
+
+    // Texts shorter than this get their key letters re-checked with quadgrams
+    private static final int REFINE_BELOW_LETTERS = 1000;
+    private static final int MAX_REFINE_PASSES = 3;
+
+    private VigenereCracker() {
+    }
+
+    /**
+     * Recovers the key with the default limits
+     * @param ciphertext The encrypted message
+     * @return The most likely key with its statistics
+     */
+    public static Result crack(CharSequence ciphertext) {
+        return crack(ciphertext, DEFAULT_MAX_KEY_LENGTH, DEFAULT_SAMPLE_LETTERS);
+    }
+
+    /**
+     * Recovers the key
+     * @param ciphertext The encrypted message
+     * @param maxKeyLength Longest key length to try
+     * @param sampleLetters Maximum number of letters to examine, from the start
+     * @return The most likely key with its statistics
+     */
+    public static Result crack(CharSequence ciphertext, int maxKeyLength, int sampleLetters) {
+        checkLimits(maxKeyLength, sampleLetters);
+        byte[] letters = new byte[Math.min(ciphertext.length(), sampleLetters)];
+        int count = 0;
+        for (int i = 0, n = ciphertext.length(); i < n && count < letters.length; i++) {
+            int slot = LetterHistogram.slot(ciphertext.charAt(i));
+            if (slot < 26) {
+                letters[count++] = (byte) slot;
+            }
+        }
+        Result result = crack(letters, count, maxKeyLength);
+        return count < REFINE_BELOW_LETTERS ? refine(result, ciphertext.toString()) : result;
+    }
+
+    /**
+     * Recovers the key from raw bytes (ASCII-compatible encodings)
+     * @param data The encrypted bytes
+     * @param offset Index of the first byte
+     * @param length Number of bytes
+     * @param maxKeyLength Longest key length to try
+     * @param sampleLetters Maximum number of letters to examine, from the start
+     * @return The most likely key with its statistics
+     */
+    public static Result crack(byte[] data, int offset, int length, int maxKeyLength, int sampleLetters) {
+        checkLimits(maxKeyLength, sampleLetters);
+        byte[] letters = new byte[Math.min(length, sampleLetters)];
+        int count = 0;
+        for (int i = offset, end = offset + length; i < end && count < letters.length; i++) {
+            int slot = LetterHistogram.slot(data[i] & 0xFF);
+            if (slot < 26) {
+                letters[count++] = (byte) slot;
+            }
+        }
+        return crack(letters, count, maxKeyLength);
+    }
+
+    /**
+     * With a few dozen letters per column, letter frequencies often get a
+     * column wrong by one letter. Each column's letter is re-chosen by the
+     * quadgram score of the whole decryption until no column changes.
+     */
+    private static Result refine(Result result, String ciphertext) {
+        NgramScorer scorer = NgramScorer.english();
+        char[] key = result.key().toCharArray();
+        double best = scorer.score(new VigenereEngine(new String(key)).decrypt(ciphertext));
+        boolean changed = true;
+        for (int pass = 0; changed && pass < MAX_REFINE_PASSES; pass++) {
+            changed = false;
+            for (int column = 0; column < key.length; column++) {
+                char chosen = key[column];
+                for (char c = 'A'; c <= 'Z'; c++) {
+                    key[column] = c;
+                    double score = scorer.score(new VigenereEngine(new String(key)).decrypt(ciphertext));
+                    if (score < best) {
+                        best = score;
+                        chosen = c;
+                        changed = true;
+                    }
+                }
+                key[column] = chosen;
+            }
+        }
+        return new Result(new String(key), result.letters, result.coincidence);
+    }
+
+    private static void checkLimits(int maxKeyLength, int sampleLetters) {
+        if (maxKeyLength <= 0) {
+            throw new IllegalArgumentException("maxKeyLength must be positive: " + maxKeyLength);
+        }
+        if (sampleLetters <= 0) {
+            throw new IllegalArgumentException("sampleLetters must be positive: " + sampleLetters);
+        }
+    }
+
+    private static Result crack(byte[] letters, int count, int maxKeyLength) {
+        if (count == 0) {
+            throw new IllegalArgumentException("Ciphertext contains no letters");
+        }
+        int lengths = Math.max(1, Math.min(maxKeyLength, count / MIN_COLUMN_LETTERS));
+        double[] coincidence = new double[lengths + 1];
+        int[][] shifts = new int[lengths + 1][];
+        ForkJoinPool.commonPool().invoke(new LengthTask(letters, count, 1, lengths + 1, coincidence, shifts));
+
+        int chosen = 1;
+        double best = Double.NEGATIVE_INFINITY;
+        for (int length = 1; length <= lengths; length++) {
+            double score = (coincidence[length] - RANDOM_COINCIDENCE) / Math.pow(length, LENGTH_PENALTY);
+            if (score > best) {
+                best = score;
+                chosen = length;
+            }
+        }
+        return new Result(shortestPeriod(shifts[chosen]), count, coincidence);
+    }
+
+    /**
+     * On short texts a multiple of the key length can edge out the key length
+     * itself; "LEMONLEMON" is reported as "LEMON"
+     */
+    private static String shortestPeriod(int[] shifts) {
+        int period = 1;
+        while (period < shifts.length) {
+            boolean repeats = shifts.length % period == 0;
+            for (int i = period; repeats && i < shifts.length; i++) {
+                repeats = shifts[i] == shifts[i - period];
+            }
+            if (repeats) {
+                break;
+            }
+            period++;
+        }
+        char[] key = new char[period];
+        for (int column = 0; column < period; column++) {
+            key[column] = (char) ('A' + shifts[column]);
+        }
+        return new String(key);
+    }
+
+    /**
+     * Averaged index of coincidence of the L strided columns
+     * @param letters Letter indexes 0-25
+     * @param count Number of letters used
+     * @param length The candidate key length
+     * @param shifts Receives the best Caesar shift of each column
+     */
+    private static double analyse(byte[] letters, int count, int length, int[] shifts) {
+        int[] counts = new int[length * 26];
+        int column = 0;
+        for (int i = 0; i < count; i++) {
+            counts[column * 26 + letters[i]]++;
+            column = column + 1 == length ? 0 : column + 1;
+        }
+
+        long[] columnCounts = new long[26];
+        double[] scores = new double[26];
+        double sum = 0;
+        for (column = 0; column < length; column++) {
+            long total = 0;
+            long pairs = 0;
+            for (int c = 0; c < 26; c++) {
+                long n = counts[column * 26 + c];
+                columnCounts[c] = n;
+                total += n;
+                pairs += n * (n - 1);
+            }
+            sum += total < 2 ? 0.0 : (double) pairs / (total * (total - 1));
+            shifts[column] = CaesarCracker.score(columnCounts, total, scores);
+        }
+        return sum / length;
+    }
+
+    /**
+     * Splits a range of key lengths until one length is left, then analyses it
+     */
+    private static final class LengthTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient byte[] letters;
+        private final int count;
+        private final int from;
+        private final int to;
+        private final transient double[] coincidence;
+        private final transient int[][] shifts;
+
+        LengthTask(byte[] letters, int count, int from, int to, double[] coincidence, int[][] shifts) {
+            this.letters = letters;
+            this.count = count;
+            this.from = from;
+            this.to = to;
+            this.coincidence = coincidence;
+            this.shifts = shifts;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                shifts[from] = new int[from];
+                coincidence[from] = analyse(letters, count, from, shifts[from]);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new LengthTask(letters, count, from, mid, coincidence, shifts),
+                new LengthTask(letters, count, mid, to, coincidence, shifts));
+        }
+    }
+
+    /**
+     * The recovered key with the statistics behind it
+     */
+    public static final class Result {
+        private final String key;
+        private final int letters;
+        private final double[] coincidence;
+
+        Result(String key, int letters, double[] coincidence) {
+            this.key = key;
+            this.letters = letters;
+            this.coincidence = coincidence;
+        }
+
+        /**
+         * @return The key in upper case
+         */
+        public String key() {
+            return key;
+        }
+
+        /**
+         * @return Length of the recovered key
+         */
+        public int keyLength() {
+            return key.length();
+        }
+
+        /**
+         * @return An engine that decrypts with the recovered key
+         */
+        public VigenereEngine engine() {
+            return new VigenereEngine(key);
+        }
+
+        /**
+         * @return Number of letters the result is based on
+         */
+        public int letters() {
+            return letters;
+        }
+
+        /**
+         * @param length A key length that was tried
+         * @return Averaged index of coincidence of its columns; about 0.066 for English
+         */
+        public double coincidence(int length) {
+            return length < coincidence.length ? coincidence[length] : 0.0;
+        }
+
+        /**
+         * @return Longest key length that was tried
+         */
+        public int maxKeyLength() {
+            return coincidence.length - 1;
+        }
+
+        /**
+         * Decrypts a ciphertext with the recovered key
+         * @param ciphertext The encrypted message
+         * @return The recovered plaintext
+         */
+        public String decrypt(String ciphertext) {
+            return engine().decrypt(ciphertext);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Result[key=%s, coincidence=%.4f, letters=%d]", key,
+                coincidence[key.length()], letters);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+import java.nio.ByteBuffer;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Vigenère cipher behind the CipherEngine interface
+ * Each letter is Caesar-shifted by the next letter of the key. Non-letters
+ * pass through and do not use up a key letter, as in the classical cipher.
+ * The engine resolves one row of shared CaesarKernel tables per key letter
+ * up front. Transforms only add a key position on top and are created per message.
+ *
+ * @author Cybersecurity Project
+ * @version 1.0
+ */
+public final class VigenereEngine implements CipherEngine {
+
+    private static final boolean[] LETTER = new boolean[256];
+
+    static {
+        for (int i = 0; i < 26; i++) {
+            LETTER['A' + i] = true;
+            LETTER['a' + i] = true;
+        }
+    }
+
+    private final String key;
+    private final byte[][] encryptBytes;
+    private final char[][] encryptChars;
+    private final byte[][] decryptBytes;
+    private final char[][] decryptChars;
+
+    /**
+     * Prefer CipherEngines.vigenere(), which caches engines by key
+     * @param key Letters A-Z in either case; anything else is rejected
+     */
+    public VigenereEngine(String key) {
+        if (key.isEmpty()) {
+            throw new IllegalArgumentException("Vigenère key must not be empty");
+        }
+        this.key = key.toUpperCase(Locale.ROOT);
+        int length = this.key.length();
+        encryptBytes = new byte[length][];
+        encryptChars = new char[length][];
+        decryptBytes = new byte[length][];
+        decryptChars = new char[length][];
+        for (int i = 0; i < length; i++) {
+            char c = this.key.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                throw new IllegalArgumentException("Vigenère key must contain only letters A-Z: " + key);
+            }
+            int shift = c - 'A';
+            encryptBytes[i] = CaesarKernel.byteTable(shift);
+            encryptChars[i] = CaesarKernel.charTable(shift);
+            decryptBytes[i] = CaesarKernel.byteTable((26 - shift) % 26);
+            decryptChars[i] = CaesarKernel.charTable((26 - shift) % 26);
+        }
+    }
+
+    /**
+     * @return The key in upper case
+     */
+    public String key() {
+        return key;
+    }
+
+    @Override
+    public String name() {
+        return "VIGENERE-" + key;
+    }
+
+    @Override
+    public Transform encryptor() {
+        return new KeyedTransform(encryptBytes, encryptChars);
+    }
+
+    @Override
+    public Transform decryptor() {
+        return new KeyedTransform(decryptBytes, decryptChars);
+    }
+
+    @Override
+    public String toString() {
+        return name();
+    }
+
+    /**
+     * Walks the key one letter at a time
+     */
+    private static final class KeyedTransform implements Transform {
+        private final byte[][] byteRows;
+        private final char[][] charRows;
+        private int position;
+
+        KeyedTransform(byte[][] byteRows, char[][] charRows) {
+            this.byteRows = byteRows;
+            this.charRows = charRows;
+        }
+
+        @Override
+        public void apply(byte[] data, int offset, int length) {
+            int p = position;
+            for (int i = offset, end = offset + length; i < end; i++) {
+                int c = data[i] & 0xFF;
+                if (LETTER[c]) {
+                    data[i] = byteRows[p][c];
+                    p = p + 1 == byteRows.length ? 0 : p + 1;
+                }
+            }
+            position = p;
+        }
+
+        @Override
+        public void apply(char[] data, int offset, int length) {
+            int p = position;
+            for (int i = offset, end = offset + length; i < end; i++) {
+                char c = data[i];
+                if (c < 256 && LETTER[c]) {
+                    data[i] = charRows[p][c];
+                    p = p + 1 == charRows.length ? 0 : p + 1;
+                }
+            }
+            position = p;
+        }
+
+        @Override
+        public void apply(ByteBuffer buffer, int offset, int length) {
+            // Checked against the buffer, not the backing array, which may extend past a slice
+            Objects.checkFromIndexSize(offset, length, buffer.capacity());
+            if (buffer.hasArray() && !buffer.isReadOnly()) {
+                apply(buffer.array(), buffer.arrayOffset() + offset, length);
+                return;
+            }
+            int p = position;
+            for (int i = offset, end = offset + length; i < end; i++) {
+                int c = buffer.get(i) & 0xFF;
+                if (LETTER[c]) {
+                    buffer.put(i, byteRows[p][c]);
+                    p = p + 1 == byteRows.length ? 0 : p + 1;
+                }
+            }
+            position = p;
+        }
+
+        @Override
+        public boolean isStateless() {
+            return false;
+        }
+    }
+}